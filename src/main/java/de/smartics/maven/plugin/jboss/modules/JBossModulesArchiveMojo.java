@@ -17,14 +17,25 @@ package de.smartics.maven.plugin.jboss.modules;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.Manifest;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.archiver.MavenArchiver;
@@ -58,23 +69,36 @@ import org.eclipse.aether.util.graph.selector.OptionalDependencySelector;
 import org.eclipse.aether.util.graph.selector.ScopeDependencySelector;
 import org.jdom2.Namespace;
 
+import de.smartics.maven.plugin.jboss.modules.aether.DependencyGraph;
 import de.smartics.maven.plugin.jboss.modules.aether.Mapper;
 import de.smartics.maven.plugin.jboss.modules.aether.MavenRepository;
+import de.smartics.maven.plugin.jboss.modules.aether.MavenResponse;
 import de.smartics.maven.plugin.jboss.modules.aether.MojoRepositoryBuilder;
+import de.smartics.maven.plugin.jboss.modules.aether.ResolutionCache;
+import de.smartics.maven.plugin.jboss.modules.aether.filter.CachingTransitiveDependencyResolver;
 import de.smartics.maven.plugin.jboss.modules.aether.filter.DefaultTransitiveDependencyResolver;
 import de.smartics.maven.plugin.jboss.modules.aether.filter.ExclusionFilter;
 import de.smartics.maven.plugin.jboss.modules.aether.filter.GaExclusionFilter;
+import de.smartics.maven.plugin.jboss.modules.aether.filter.GraphTransitiveDependencyResolver;
 import de.smartics.maven.plugin.jboss.modules.aether.filter.TestScopeFilter;
 import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
 import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
 import de.smartics.maven.plugin.jboss.modules.descriptor.ModulesDescriptor;
+import de.smartics.maven.plugin.jboss.modules.domain.ArtifactKey;
 import de.smartics.maven.plugin.jboss.modules.domain.ExecutionContext;
+import de.smartics.maven.plugin.jboss.modules.domain.JarModuleArchive;
+import de.smartics.maven.plugin.jboss.modules.domain.ModuleArchive;
 import de.smartics.maven.plugin.jboss.modules.domain.ModuleBuilder;
+import de.smartics.maven.plugin.jboss.modules.domain.ModuleFingerprints;
 import de.smartics.maven.plugin.jboss.modules.domain.ModuleMap;
+import de.smartics.maven.plugin.jboss.modules.domain.ParallelJarModuleArchive;
 import de.smartics.maven.plugin.jboss.modules.domain.PrunerGenerator;
+import de.smartics.maven.plugin.jboss.modules.domain.ResourceStaging;
 import de.smartics.maven.plugin.jboss.modules.domain.SlotStrategy;
+import de.smartics.maven.plugin.jboss.modules.domain.StaleModuleCleaner;
 import de.smartics.maven.plugin.jboss.modules.domain.TransitiveDependencyResolver;
 import de.smartics.maven.plugin.jboss.modules.parser.ModulesXmlLocator;
+import de.smartics.maven.plugin.jboss.modules.util.DigestBuilder;
 import de.smartics.maven.plugin.jboss.modules.xml.ModuleXmlBuilder;
 
 /**
@@ -100,6 +124,19 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
    */
   private List<ArtifactClusion> dependencyExcludesInternal;
 
+  /**
+   * The graph of the resolved root dependencies. Only set if
+   * {@link #resolveFromDependencyGraph} is <code>true</code>.
+   */
+  private DependencyGraph dependencyGraph;
+
+  /**
+   * The pool to resolve artifacts concurrently on, shared by all repositories
+   * of an execution. Only set while executing if {@link #resolutionThreads} is
+   * greater than one.
+   */
+  private ExecutorService resolutionExecutor;
+
   // ... Mojo infrastructure ..................................................
 
   /**
@@ -370,6 +407,10 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
    * (<code>false</code>). Refer to
    * <a href="https://github.com/wildfly-extras/wildfly-camel/issues/11">Provide camel subsystem as feature pack</a>
    * for details.
+   * <p>
+   * Since a feature pack only references artifacts by their coordinates, the
+   * dependency graph is only collected and no artifact files are downloaded.
+   * </p>
    *
    * @since 2.1.0
    */
@@ -384,6 +425,293 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
   @Parameter(defaultValue = ModuleXmlBuilder.MODULE_NS_1_1_URI)
   private String targetNamespace;
 
+  /**
+   * Whether to derive the direct dependencies of each artifact from the
+   * dependency graph of the root dependencies (<code>true</code>) or to resolve
+   * them with a separate request to the repository (<code>false</code>).
+   * <p>
+   * Deriving the direct dependencies from the graph requires no further
+   * requests to the repository. Note that the graph reflects the exclusions and
+   * the optional dependency selection of the path an artifact has been reached
+   * with. Direct optional dependencies of transitive artifacts are therefore
+   * only part of the graph if <code>followOptionalDependencies</code> is set to
+   * <code>true</code>. Artifacts not found in the graph are resolved by the
+   * repository.
+   * </p>
+   * <p>
+   * If <code>useResolutionCache</code> is set to <code>true</code> and the
+   * dependencies are read from the cache, no dependency graph is available
+   * and the direct dependencies are resolved by the repository.
+   * </p>
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.resolveFromDependencyGraph",
+      defaultValue = "false")
+  private boolean resolveFromDependencyGraph;
+
+  /**
+   * The maximum number of resolutions of artifacts to cache. Each artifact is
+   * resolved only once as long as its resolution is cached. A value less than
+   * or equal to zero does not bound the cache.
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.resolverCacheMaxEntries",
+      defaultValue = "0")
+  private int resolverCacheMaxEntries;
+
+  /**
+   * Whether to store the resolved dependencies in the
+   * <code>resolutionCacheFile</code> to reuse them in later builds
+   * (<code>true</code>) or not (<code>false</code>).
+   * <p>
+   * The stored dependencies are reused as long as the root dependencies, the
+   * managed dependencies, the <code>dependencyExcludes</code>, the flags
+   * controlling the selection of dependencies and the module descriptors are
+   * unchanged and all referenced files still exist in the local repository.
+   * Note that changes to snapshot dependencies in remote repositories are not
+   * detected.
+   * </p>
+   * <p>
+   * Only the resolution of the root dependencies is cached. The direct
+   * dependencies of each artifact added to a module are still resolved by the
+   * repository.
+   * </p>
+   * <p>
+   * Reading the dependencies from the cache does not provide a dependency
+   * graph. If <code>resolveFromDependencyGraph</code> is set to
+   * <code>true</code>, it has therefore no effect on builds that reuse the
+   * cached dependencies.
+   * </p>
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.useResolutionCache",
+      defaultValue = "false")
+  private boolean useResolutionCache;
+
+  /**
+   * The file to store the resolved dependencies to. Only used if
+   * <code>useResolutionCache</code> is set to <code>true</code>.
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.resolutionCacheFile",
+      defaultValue = "${project.build.directory}/jboss-modules-resolution.cache")
+  private File resolutionCacheFile;
+
+  /**
+   * The maximum number of threads to download and resolve artifacts
+   * concurrently. If set to a value greater than one, the dependency graph is
+   * collected first and the artifacts of its nodes are then resolved in
+   * batches on a bounded pool of threads. This speeds up builds with a cold
+   * local repository.
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.resolutionThreads",
+      defaultValue = "1")
+  private int resolutionThreads;
+
+  /**
+   * The maximum number of threads to create modules concurrently. Modules are
+   * independent of each other once the dependencies have been mapped to their
+   * modules, so their descriptors are written and their resources are copied
+   * on a bounded pool of threads if set to a value greater than one. The
+   * generated modules do not depend on the number of threads.
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.generationThreads",
+      defaultValue = "1")
+  private int generationThreads;
+
+  /**
+   * Whether to write the <code>module.xml</code> descriptors directly to their
+   * files instead of building each descriptor as a document in memory first.
+   * The descriptors written are identical. Descriptors containing XML
+   * fragments with content that cannot be streamed, like mixed content or
+   * CDATA sections, are built in memory regardless of this setting.
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.streamModuleXml",
+      defaultValue = "false")
+  private boolean streamModuleXml;
+
+  /**
+   * Whether to skip modules that are unchanged since the previous build
+   * (<code>true</code>) or to create all modules (<code>false</code>).
+   * <p>
+   * A module is unchanged if its <code>module.xml</code> descriptor and the
+   * path, size and modification time of each of its resources equal those
+   * recorded in the <code>fingerprintsFile</code> by the previous build and
+   * all files of the module still exist in the <code>targetFolder</code>.
+   * </p>
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.incrementalGeneration",
+      defaultValue = "false")
+  private boolean incrementalGeneration;
+
+  /**
+   * The file to store the fingerprints of the created modules to. Only used if
+   * <code>incrementalGeneration</code> is set to <code>true</code>. The file
+   * must not be located within the <code>targetFolder</code>.
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.fingerprintsFile",
+      defaultValue = "${project.build.directory}/jboss-modules.fingerprints")
+  private File fingerprintsFile;
+
+  /**
+   * The strategy to stage the resources of modules in the
+   * <code>targetFolder</code>.
+   * <table>
+   * <thead>
+   * <tr>
+   * <th>Strategy</th>
+   * <th>Description</th>
+   * </tr>
+   * </thead> <tbody>
+   * <tr>
+   * <td>copy</td>
+   * <td>The resources are copied from the local repository (default).</td>
+   * </tr>
+   * <tr>
+   * <td>transfer</td>
+   * <td>The resources are copied from channel to channel, avoiding to copy
+   * through user space where supported by the operating system.</td>
+   * </tr>
+   * <tr>
+   * <td>hardlink</td>
+   * <td>The resources are hard links to the files in the local
+   * repository.</td>
+   * </tr>
+   * <tr>
+   * <td>symlink</td>
+   * <td>The resources are symbolic links to the files in the local
+   * repository.</td>
+   * </tr>
+   * </tbody>
+   * </table>
+   * <p>
+   * If a link cannot be created, for instance because the local repository is
+   * located on a different file system, the resource is transferred instead.
+   * The attached archive contains the contents of linked resources.
+   * </p>
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.resourceStaging",
+      defaultValue = "copy")
+  private String resourceStaging;
+
+  /**
+   * Whether to write the modules to the <code>targetFolder</code> before
+   * archiving them (<code>true</code>) or to write the modules directly to the
+   * attached archive (<code>false</code>). Only used if <code>attach</code> is
+   * set to <code>true</code>.
+   * <p>
+   * Writing the modules directly saves writing and reading each file of the
+   * modules a second time. Resources that are jar files are stored in the
+   * archive without compressing them again. Modules are then written one
+   * after the other, in the order of their names, and the archive contains
+   * the manifest configured by <code>archive</code>, but no Maven descriptor.
+   * </p>
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.stageModules",
+      defaultValue = "true")
+  private boolean stageModules;
+
+  /**
+   * The number of threads to compress the entries of the attached archive on.
+   * If set to a value greater than one, the entries are compressed
+   * concurrently and written in a deterministic order, independent of the
+   * number of threads. The archive contains the manifest configured by
+   * <code>archive</code>, but no Maven descriptor.
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.archiveThreads",
+      defaultValue = "1")
+  private int archiveThreads;
+
+  /**
+   * Whether to remove modules from the <code>targetFolder</code> that have
+   * been created by the previous build but not by the current build
+   * (<code>true</code>) or to keep them (<code>false</code>).
+   * <p>
+   * The folders of the modules of each build are recorded in the
+   * <code>moduleFoldersFile</code>. A recorded folder is removed if it is not
+   * the folder of a module of the current build, for instance because the
+   * module has been renamed or removed from the module descriptors. Modules
+   * not created by this plugin and any other files in the
+   * <code>targetFolder</code> are not touched. Modules created by a build that
+   * did not remove stale modules are not recorded and therefore not removed.
+   * </p>
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.removeStaleModules",
+      defaultValue = "false")
+  private boolean removeStaleModules;
+
+  /**
+   * The file to record the folders of the created modules in. Only used if
+   * <code>removeStaleModules</code> is set to <code>true</code>. The file must
+   * not be located within the <code>targetFolder</code>.
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.moduleFoldersFile",
+      defaultValue = "${project.build.directory}/jboss-modules.folders")
+  private File moduleFoldersFile;
+
+  /**
+   * The level to deflate the entries of the attached archive with, from
+   * <code>0</code> (no compression) to <code>9</code> (best compression), or
+   * <code>-1</code> for the default level. Only used if the archive is written
+   * directly (see <code>stageModules</code>) or concurrently (see
+   * <code>archiveThreads</code>).
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.archiveCompressionLevel",
+      defaultValue = "-1")
+  private int archiveCompressionLevel;
+
+  /**
+   * Whether to store resources that are jar files in the attached archive
+   * without compressing them again (<code>true</code>) or to deflate them
+   * (<code>false</code>). Only used if the archive is written directly (see
+   * <code>stageModules</code>) or concurrently (see
+   * <code>archiveThreads</code>).
+   *
+   * @since 2.1.6
+   */
+  @Parameter(property = "smartics-jboss-modules.archiveStoreJars",
+      defaultValue = "true")
+  private boolean archiveStoreJars;
+
+  /**
+   * The time to write entries of the attached archive with that are not backed
+   * by a file, such as generated module descriptors, in the format of
+   * <code>project.build.outputTimestamp</code>. If not set, a constant time is
+   * used so that unchanged modules result in the same archive. Only used if
+   * the archive is written directly (see <code>stageModules</code>) or
+   * concurrently (see <code>archiveThreads</code>).
+   *
+   * @since 2.1.6
+   */
+  @Parameter(defaultValue = "${project.build.outputTimestamp}")
+  private String outputTimestamp;
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -413,12 +741,25 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
     this.modulesDescriptors = initModulesDescriptors();
     this.allModules = initModules();
     this.repositorySession = adjustSession();
+    this.resolutionExecutor =
+        resolutionThreads > 1 ? Executors.newFixedThreadPool(resolutionThreads)
+            : null;
+    try
+    {
+      final List<Dependency> rootDependencies = calcRootDependencies();
+      final List<Dependency> dependencies = resolve(rootDependencies);
 
-    final List<Dependency> rootDependencies = calcRootDependencies();
-    final List<Dependency> dependencies = resolve(rootDependencies);
-
-    logDependencies(rootDependencies, dependencies);
-    runModuleCreation(dependencies);
+      logDependencies(rootDependencies, dependencies);
+      runModuleCreation(dependencies);
+    }
+    finally
+    {
+      if (resolutionExecutor != null)
+      {
+        resolutionExecutor.shutdownNow();
+        resolutionExecutor = null;
+      }
+    }
     attach();
   }
 
@@ -513,15 +854,156 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
       dependencies.add(0, projectAsDependency);
     }
 
-    final ExecutionContext context = createContext(dependencies);
-    for (final Entry<ModuleDescriptor, List<Dependency>> entry : context
-        .getModuleMap().toMap().entrySet())
+    final ModuleArchive archive = openModuleArchive();
+    final ModuleFingerprints fingerprints =
+        archive == null ? readFingerprints() : null;
+    final ExecutionContext context =
+        createContext(dependencies, fingerprints, archive);
+    final Map<ModuleDescriptor, List<Dependency>> modules =
+        context.getModuleMap().toMap();
+    final List<File> moduleFolders;
+    try
+    {
+      if (archive == null && generationThreads > 1 && modules.size() > 1)
+      {
+        moduleFolders = createModulesConcurrently(context, modules);
+      }
+      else
+      {
+        moduleFolders = createModules(context, modules);
+      }
+      closeModuleArchive(archive);
+    }
+    finally
+    {
+      IOUtils.closeQuietly(archive);
+    }
+
+    if (archive == null)
+    {
+      removeStaleModules(moduleFolders);
+    }
+    writeFingerprints(fingerprints);
+
+    if (verbose)
+    {
+      getLog().info("Resolver cache: " + context.getResolver());
+    }
+  }
+
+  private void removeStaleModules(final List<File> moduleFolders)
+    throws MojoExecutionException
+  {
+    if (!removeStaleModules)
+    {
+      return;
+    }
+
+    final StaleModuleCleaner cleaner =
+        new StaleModuleCleaner(targetFolder, moduleFoldersFile);
+    for (final File moduleFolder : moduleFolders)
+    {
+      cleaner.addModule(moduleFolder);
+    }
+
+    try
+    {
+      final List<File> removed = cleaner.clean();
+      if (!removed.isEmpty())
+      {
+        getLog().info(
+            String.format("Removed %d stale folders from '%s'.",
+                removed.size(), targetFolder));
+        if (verbose)
+        {
+          getLog().info("Removed: " + removed);
+        }
+      }
+    }
+    catch (final IOException e)
+    {
+      throw new MojoExecutionException(String.format(
+          "Cannot remove stale modules from '%s'.", targetFolder), e);
+    }
+  }
+
+  private boolean isDirectArchive()
+  {
+    return attach && !stageModules;
+  }
+
+  private ModuleArchive openModuleArchive() throws MojoExecutionException
+  {
+    if (!isDirectArchive())
+    {
+      return null;
+    }
+
+    return createModuleArchive();
+  }
+
+  private ModuleArchive createModuleArchive() throws MojoExecutionException
+  {
+    try
+    {
+      final MavenArchiver archiver = new MavenArchiver();
+      final Manifest manifest =
+          archiver.getManifest(session, project, archive);
+      if (archiveThreads > 1)
+      {
+        return new ParallelJarModuleArchive(modulesArchive, manifest,
+            archiveThreads, archiveCompressionLevel, archiveStoreJars,
+            calcEntryTime());
+      }
+      return new JarModuleArchive(modulesArchive, manifest,
+          archiveCompressionLevel, archiveStoreJars, calcEntryTime());
+    }
+    catch (final Exception e)
+    {
+      final String message =
+          String.format("Cannot create archive '%s'.: %s",
+              modulesArchive.getAbsolutePath(), e.getMessage());
+      throw new MojoExecutionException(message, e);
+    }
+  }
+
+  private long calcEntryTime()
+  {
+    final Optional<Instant> timestamp =
+        MavenArchiver.parseBuildOutputTimestamp(outputTimestamp);
+    return timestamp.isPresent() ? timestamp.get().toEpochMilli()
+        : JarModuleArchive.DEFAULT_ENTRY_TIME;
+  }
+
+  private void closeModuleArchive(final ModuleArchive archive)
+    throws MojoExecutionException
+  {
+    if (archive != null)
     {
-      final ModuleDescriptor module = entry.getKey();
-      final Collection<Dependency> moduleDependencies =
-          new HashSet<Dependency>(entry.getValue());
-      final ModuleBuilder builder =
-          new ModuleBuilder(context, module, moduleDependencies);
+      try
+      {
+        archive.close();
+      }
+      catch (final IOException e)
+      {
+        final String message =
+            String.format("Cannot create archive '%s'.: %s",
+                modulesArchive.getAbsolutePath(), e.getMessage());
+        throw new MojoExecutionException(message, e);
+      }
+    }
+  }
+
+  private static List<File> createModules(final ExecutionContext context,
+      final Map<ModuleDescriptor, List<Dependency>> modules)
+    throws MojoExecutionException
+  {
+    final List<File> moduleFolders = new ArrayList<File>(modules.size());
+    for (final Entry<ModuleDescriptor, List<Dependency>> entry : modules
+        .entrySet())
+    {
+      final ModuleBuilder builder = createModuleBuilder(context, entry);
+      addModuleFolder(moduleFolders, builder);
       try
       {
         builder.create();
@@ -532,6 +1014,154 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
                                          + entry.getKey().getName() + "'.", e);
       }
     }
+    return moduleFolders;
+  }
+
+  private static void addModuleFolder(final List<File> moduleFolders,
+      final ModuleBuilder builder)
+  {
+    if (!builder.isSkipped())
+    {
+      moduleFolders.add(builder.getModuleFolder());
+    }
+  }
+
+  private ModuleFingerprints readFingerprints()
+  {
+    if (!incrementalGeneration)
+    {
+      return null;
+    }
+
+    final ModuleFingerprints fingerprints =
+        new ModuleFingerprints(fingerprintsFile);
+    try
+    {
+      fingerprints.read();
+    }
+    catch (final IOException e)
+    {
+      getLog().warn(
+          String.format("Cannot read module fingerprints '%s': %s",
+              fingerprintsFile, e.getMessage()));
+    }
+    return fingerprints;
+  }
+
+  private void writeFingerprints(final ModuleFingerprints fingerprints)
+  {
+    if (fingerprints != null)
+    {
+      try
+      {
+        fingerprints.write();
+      }
+      catch (final IOException e)
+      {
+        getLog().warn(
+            String.format("Cannot write module fingerprints '%s': %s",
+                fingerprintsFile, e.getMessage()));
+      }
+    }
+  }
+
+  private static ModuleBuilder createModuleBuilder(
+      final ExecutionContext context,
+      final Entry<ModuleDescriptor, List<Dependency>> entry)
+  {
+    final ModuleDescriptor module = entry.getKey();
+    final Collection<Dependency> moduleDependencies =
+        new HashSet<Dependency>(entry.getValue());
+    return new ModuleBuilder(context, module, moduleDependencies);
+  }
+
+  private List<File> createModulesConcurrently(final ExecutionContext context,
+      final Map<ModuleDescriptor, List<Dependency>> modules)
+    throws MojoExecutionException
+  {
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(generationThreads,
+            modules.size()));
+    try
+    {
+      final List<File> moduleFolders = new ArrayList<File>(modules.size());
+      final List<String> names = new ArrayList<String>(modules.size());
+      final List<Future<Void>> futures =
+          new ArrayList<Future<Void>>(modules.size());
+      for (final Entry<ModuleDescriptor, List<Dependency>> entry : modules
+          .entrySet())
+      {
+        final ModuleBuilder builder = createModuleBuilder(context, entry);
+        addModuleFolder(moduleFolders, builder);
+        names.add(entry.getKey().getName());
+        futures.add(executor.submit(new Callable<Void>()
+        {
+          @Override
+          public Void call() throws IOException
+          {
+            builder.create();
+            return null;
+          }
+        }));
+      }
+
+      final List<String> failedNames = new ArrayList<String>();
+      final List<Throwable> failures = new ArrayList<Throwable>();
+      for (int i = 0; i < futures.size(); i++)
+      {
+        try
+        {
+          futures.get(i).get();
+        }
+        catch (final ExecutionException e)
+        {
+          failedNames.add(names.get(i));
+          failures.add(e.getCause());
+        }
+        catch (final InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+          throw new MojoExecutionException(
+              "Interrupted while writing modules.", e);
+        }
+      }
+      throwOnFailures(failedNames, failures);
+      return moduleFolders;
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void throwOnFailures(final List<String> failedNames,
+      final List<Throwable> failures) throws MojoExecutionException
+  {
+    if (failures.isEmpty())
+    {
+      return;
+    }
+    if (failures.size() == 1)
+    {
+      throw new MojoExecutionException("Cannot write module '"
+                                       + failedNames.get(0) + "'.",
+          failures.get(0));
+    }
+
+    final StringBuilder buffer = new StringBuilder(128);
+    buffer.append("Cannot write ").append(failures.size()).append(" modules:");
+    for (int i = 0; i < failures.size(); i++)
+    {
+      buffer.append("\n  ").append(failedNames.get(i)).append(": ")
+          .append(failures.get(i).getMessage());
+    }
+    final MojoExecutionException exception =
+        new MojoExecutionException(buffer.toString(), failures.get(0));
+    for (int i = 1; i < failures.size(); i++)
+    {
+      exception.addSuppressed(failures.get(i));
+    }
+    throw exception;
   }
 
   private void logDependencies(final Collection<Dependency> rootDependencies,
@@ -577,15 +1207,28 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
     {
       return;
     }
+    if (isDirectArchive())
+    {
+      projectHelper.attachArtifact(project, "jar", "jboss-modules",
+          modulesArchive);
+      return;
+    }
     if (!targetFolder.isDirectory())
     {
       getLog().info("Nothing to attach.");
       return;
     }
+    if (archiveThreads > 1)
+    {
+      archiveTargetFolder();
+      projectHelper.attachArtifact(project, "jar", "jboss-modules",
+          modulesArchive);
+      return;
+    }
 
     try
     {
-      jarArchiver.addDirectory(targetFolder);
+      addTargetFolder();
 
       final MavenArchiver archiver = new MavenArchiver();
       archiver.setArchiver(jarArchiver);
@@ -603,13 +1246,78 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
     }
   }
 
-  private ExecutionContext createContext(final List<Dependency> dependencies)
+  private void archiveTargetFolder() throws MojoExecutionException
+  {
+    final ModuleArchive moduleArchive = createModuleArchive();
+    try
+    {
+      addFiles(moduleArchive, targetFolder, "");
+      closeModuleArchive(moduleArchive);
+    }
+    catch (final IOException e)
+    {
+      final String message =
+          String.format("Cannot create archive '%s'.: %s",
+              modulesArchive.getAbsolutePath(), e.getMessage());
+      throw new MojoExecutionException(message, e);
+    }
+    finally
+    {
+      IOUtils.closeQuietly(moduleArchive);
+    }
+  }
+
+  private static void addFiles(final ModuleArchive moduleArchive,
+      final File folder, final String path) throws IOException
+  {
+    final File[] files = folder.listFiles();
+    if (files == null)
+    {
+      throw new IOException(String.format("Cannot list folder '%s'.",
+          folder.getAbsolutePath()));
+    }
+    Arrays.sort(files);
+    for (final File file : files)
+    {
+      if (file.isDirectory())
+      {
+        addFiles(moduleArchive, file, path + file.getName() + '/');
+      }
+      else if (file.isFile())
+      {
+        moduleArchive.add(path + file.getName(), file);
+      }
+    }
+  }
+
+  private void addTargetFolder() throws IOException
+  {
+    final Map<String, File> links =
+        ResourceStaging.findSymbolicLinks(targetFolder);
+    if (links.isEmpty())
+    {
+      jarArchiver.addDirectory(targetFolder);
+      return;
+    }
+
+    jarArchiver.addDirectory(targetFolder, null,
+        links.keySet().toArray(new String[links.size()]));
+    for (final Entry<String, File> link : links.entrySet())
+    {
+      jarArchiver.addFile(link.getValue(), link.getKey());
+    }
+  }
+
+  private ExecutionContext createContext(final List<Dependency> dependencies,
+      final ModuleFingerprints fingerprints, final ModuleArchive archive)
   {
     final ExecutionContext.Builder builder = new ExecutionContext.Builder();
     builder.with(getLog());
     builder.withTargetFolder(targetFolder);
 
-    final TransitiveDependencyResolver resolver = createResolver(dependencies);
+    final ArtifactKey.Pool keys = new ArtifactKey.Pool();
+    final TransitiveDependencyResolver resolver =
+        createResolver(dependencies, keys);
     builder.with(resolver);
 
     final SlotStrategy slotStrategy =
@@ -617,11 +1325,15 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
     builder.with(slotStrategy);
     builder.withDefaultSlot(defaultSlot);
 
-    final ModuleMap moduleMap = new ModuleMap(allModules, dependencies);
+    final ModuleMap moduleMap = new ModuleMap(allModules, dependencies, keys);
     builder.with(moduleMap);
     builder.withIgnoreOptionalDependencies(ignoreOptionalDependencies);
     builder.withGenerateFeaturePackDefinition(generateFeaturePackDefinition);
     builder.withTargetNamespaceUri(targetNamespace);
+    builder.withStreamModuleXml(streamModuleXml);
+    builder.with(fingerprints);
+    builder.with(ResourceStaging.fromString(resourceStaging));
+    builder.with(archive);
 
     if (verbose)
     {
@@ -677,9 +1389,103 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
   private List<Dependency> resolve(final List<Dependency> rootDependencies)
     throws MojoExecutionException
   {
-    final TransitiveDependencyResolver resolver = createResolver(null);
+    if (!useResolutionCache)
+    {
+      return resolveFromRepository(rootDependencies);
+    }
+
+    final ResolutionCache cache = createResolutionCache(rootDependencies);
     try
     {
+      final List<Dependency> cachedDependencies = cache.read();
+      if (cachedDependencies != null)
+      {
+        getLog().info(
+            String.format("Using %d resolved dependencies cached in '%s'.",
+                cachedDependencies.size(), resolutionCacheFile));
+        if (resolveFromDependencyGraph)
+        {
+          getLog().warn(
+              "No dependency graph available for resolveFromDependencyGraph,"
+                  + " since the dependencies have been read from the"
+                  + " resolution cache. Resolving direct dependencies by the"
+                  + " repository.");
+        }
+        return cachedDependencies;
+      }
+    }
+    catch (final IOException e)
+    {
+      getLog().warn(
+          String.format("Cannot read resolution cache '%s': %s",
+              resolutionCacheFile, e.getMessage()));
+    }
+
+    final List<Dependency> dependencies =
+        resolveFromRepository(rootDependencies);
+    try
+    {
+      cache.write(dependencies);
+    }
+    catch (final IOException e)
+    {
+      getLog().warn(
+          String.format("Cannot write resolution cache '%s': %s",
+              resolutionCacheFile, e.getMessage()));
+    }
+    return dependencies;
+  }
+
+  private ResolutionCache createResolutionCache(
+      final List<Dependency> rootDependencies)
+  {
+    final DigestBuilder digest = new DigestBuilder();
+    digest.add("rootDependencies", rootDependencies);
+    digest.add("managedDependencies", calcManagedDependencies());
+    digest.add("dependencyExcludes", dependencyExcludesInternal);
+    digest.add("followOptionalDependencies", followOptionalDependencies);
+    digest.add("ignoreDependencyExclusions", ignoreDependencyExclusions);
+    digest.add("ignoreOptionalDependencies", ignoreOptionalDependencies);
+    digest.add("generateFeaturePackDefinition", generateFeaturePackDefinition);
+    for (final ModuleDescriptor module : allModules)
+    {
+      digest.add("module", module.getName() + ':' + module.getSlot() + ':'
+                           + module.getDirectives().getSkip() + ':'
+                           + module.getMatcher().getIncludes() + ':'
+                           + module.getMatcher().getExcludes());
+    }
+    return new ResolutionCache(resolutionCacheFile, digest.build());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Dependency> calcManagedDependencies()
+  {
+    final List<Dependency> managedDependencies = new ArrayList<Dependency>();
+    final DependencyManagement management = project.getDependencyManagement();
+    if (management != null)
+    {
+      addMappedDependencies(managedDependencies, management.getDependencies());
+    }
+    return managedDependencies;
+  }
+
+  private List<Dependency> resolveFromRepository(
+      final List<Dependency> rootDependencies) throws MojoExecutionException
+  {
+    try
+    {
+      if (resolveFromDependencyGraph)
+      {
+        final MavenRepository repository = createRepository(null);
+        final MavenResponse response = repository.resolve(rootDependencies);
+        dependencyGraph =
+            DependencyGraph.create(response.getRootNode(),
+                response.getFlagger(), generateFeaturePackDefinition);
+        return response.getDependencies();
+      }
+
+      final TransitiveDependencyResolver resolver =
+          createResolver(null, new ArtifactKey.Pool());
       final List<Dependency> dependencies = resolver.resolve(rootDependencies);
       return dependencies;
     }
@@ -694,6 +1500,24 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
   }
 
   private TransitiveDependencyResolver createResolver(
+      final List<Dependency> managedDependencies, final ArtifactKey.Pool keys)
+  {
+    final MavenRepository repository = createRepository(managedDependencies);
+    final TransitiveDependencyResolver resolver;
+    if (dependencyGraph != null)
+    {
+      resolver =
+          new GraphTransitiveDependencyResolver(repository, dependencyGraph);
+    }
+    else
+    {
+      resolver = new DefaultTransitiveDependencyResolver(repository);
+    }
+    return new CachingTransitiveDependencyResolver(resolver,
+        resolverCacheMaxEntries, keys);
+  }
+
+  private MavenRepository createRepository(
       final List<Dependency> managedDependencies)
   {
     final PrunerGenerator prunerGenerator =
@@ -704,10 +1528,11 @@ public final class JBossModulesArchiveMojo extends AbstractMojo
     builder.with(repositorySystem).with(repositorySession).with(remoteRepos)
         .withDependencyFilters(dependencyFilters)
         .withManagedDependencies(managedDependencies).withOffline(offline)
-        .withTraverserGenerator(prunerGenerator).build();
-    final MavenRepository repository = builder.build();
-
-    return new DefaultTransitiveDependencyResolver(repository);
+        .withTraverserGenerator(prunerGenerator)
+        .withResolutionThreads(resolutionThreads)
+        .withResolutionExecutor(resolutionExecutor)
+        .withCollectOnly(generateFeaturePackDefinition);
+    return builder.build();
   }
 
   private List<DependencyFilter> createDependencyFilters()
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.aether;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.aether.collection.DependencyGraphTransformationContext;
+import org.eclipse.aether.collection.DependencyGraphTransformer;
+import org.eclipse.aether.graph.DependencyNode;
+
+/**
+ * Records the children of each node of a collected dependency graph before
+ * conflicts are resolved. Conflict resolution removes the nodes of an artifact
+ * from all but one parent, so the children of a transformed node do not
+ * necessarily reflect the direct dependencies of its artifact. The recorded
+ * children are stored in the data of each node.
+ */
+final class DeclaredChildrenRecorder implements DependencyGraphTransformer
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The key to the children of a node recorded before conflicts have been
+   * resolved.
+   */
+  static final String NODE_DATA_DECLARED_CHILDREN =
+      DeclaredChildrenRecorder.class.getName() + ".children";
+
+  // --- members --------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the children of the node recorded before conflicts have been
+   * resolved.
+   *
+   * @param node the node whose children are requested.
+   * @return the recorded children or the current children of the node, if no
+   *         children have been recorded.
+   */
+  static List<DependencyNode> getDeclaredChildren(final DependencyNode node)
+  {
+    @SuppressWarnings("unchecked")
+    final List<DependencyNode> children =
+        (List<DependencyNode>) node.getData().get(NODE_DATA_DECLARED_CHILDREN);
+    return children != null ? children : node.getChildren();
+  }
+
+  // --- business -------------------------------------------------------------
+
+  @Override
+  public DependencyNode transformGraph(final DependencyNode node,
+      final DependencyGraphTransformationContext context)
+  {
+    record(node,
+        new IdentityHashMap<List<DependencyNode>, List<DependencyNode>>());
+    return node;
+  }
+
+  private static void record(final DependencyNode node,
+      final Map<List<DependencyNode>, List<DependencyNode>> recorded)
+  {
+    final List<DependencyNode> children = node.getChildren();
+    List<DependencyNode> copy = recorded.get(children);
+    final boolean visited = copy != null;
+    if (!visited)
+    {
+      // Nodes of the same artifact may share their list of children.
+      copy =
+          Collections.unmodifiableList(new ArrayList<DependencyNode>(children));
+      recorded.put(children, copy);
+    }
+    node.setData(NODE_DATA_DECLARED_CHILDREN, copy);
+
+    if (!visited)
+    {
+      for (final DependencyNode child : copy)
+      {
+        record(child, recorded);
+      }
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
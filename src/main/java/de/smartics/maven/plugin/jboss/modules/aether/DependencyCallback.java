@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.aether;
+
+import org.eclipse.aether.graph.Dependency;
+
+/**
+ * Receives the resolved dependencies of a request as soon as they are visited
+ * in the dependency graph.
+ */
+public interface DependencyCallback
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Accepts the next resolved dependency. Each artifact is passed only once
+   * per request, in preorder of the dependency graph.
+   *
+   * @param dependency the resolved dependency.
+   */
+  void accept(Dependency dependency);
+
+  // --- object basics --------------------------------------------------------
+
+}
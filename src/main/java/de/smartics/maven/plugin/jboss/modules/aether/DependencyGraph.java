@@ -0,0 +1,210 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.aether;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.util.graph.visitor.PreorderNodeListGenerator;
+
+import de.smartics.maven.plugin.jboss.modules.aether.filter.DependencyFlagger;
+import de.smartics.maven.plugin.jboss.modules.util.Arg;
+
+/**
+ * Provides access to the nodes of a dependency graph that has already been
+ * collected and resolved. This allows to calculate the direct dependencies of
+ * each artifact in the graph without running another collect request against
+ * the repository.
+ */
+public final class DependencyGraph
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * Maps the coordinates of an artifact to the first node in preorder that
+   * references this artifact.
+   */
+  private final Map<String, DependencyNode> nodes;
+
+  /**
+   * The flag indicating that the graph has only been collected and its nodes
+   * do not reference artifact files.
+   */
+  private final boolean collectOnly;
+
+  /**
+   * The rejections of the request that resolved the graph.
+   */
+  private final DependencyFlagger flagger;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private DependencyGraph(final Map<String, DependencyNode> nodes,
+      final DependencyFlagger flagger, final boolean collectOnly)
+  {
+    this.nodes = nodes;
+    this.flagger = flagger;
+    this.collectOnly = collectOnly;
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- factory --------------------------------------------------------------
+
+  /**
+   * Creates the graph for the given root node.
+   *
+   * @param rootNode the root node of the resolved dependency graph.
+   * @return the graph providing access to the nodes.
+   * @throws NullPointerException if {@code rootNode} is <code>null</code>.
+   */
+  public static DependencyGraph create(final DependencyNode rootNode)
+    throws NullPointerException
+  {
+    return create(rootNode, new DependencyFlagger(), false);
+  }
+
+  /**
+   * Creates the graph for the given root node.
+   *
+   * @param rootNode the root node of the resolved dependency graph.
+   * @param flagger the rejections of the request that resolved the graph.
+   * @param collectOnly the flag indicating that the graph has only been
+   *          collected and its nodes do not reference artifact files.
+   * @return the graph providing access to the nodes.
+   * @throws NullPointerException if {@code rootNode} or {@code flagger} is
+   *           <code>null</code>.
+   */
+  public static DependencyGraph create(final DependencyNode rootNode,
+      final DependencyFlagger flagger, final boolean collectOnly)
+    throws NullPointerException
+  {
+    Arg.checkNotNull("rootNode", rootNode);
+    Arg.checkNotNull("flagger", flagger);
+
+    final PreorderNodeListGenerator generator = new PreorderNodeListGenerator();
+    rootNode.accept(generator);
+
+    final Map<String, DependencyNode> nodes =
+        new HashMap<String, DependencyNode>();
+    for (final DependencyNode node : generator.getNodes())
+    {
+      final Dependency dependency = node.getDependency();
+      if (dependency != null)
+      {
+        final String key = createKey(dependency.getArtifact());
+        if (!nodes.containsKey(key))
+        {
+          nodes.put(key, node);
+        }
+      }
+    }
+    return new DependencyGraph(nodes, flagger, collectOnly);
+  }
+
+  /**
+   * Creates the key to identify the artifact by its coordinates.
+   *
+   * @param artifact the artifact to create the key for.
+   * @return the key of the artifact.
+   */
+  static String createKey(final Artifact artifact)
+  {
+    return artifact.getGroupId() + ':' + artifact.getArtifactId() + ':'
+           + artifact.getExtension() + ':' + artifact.getClassifier() + ':'
+           + artifact.getVersion();
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the number of artifacts known to this graph.
+   *
+   * @return the number of artifacts known to this graph.
+   */
+  public int size()
+  {
+    return nodes.size();
+  }
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Calculates the direct dependencies of the given dependency from the
+   * children of its node. The result corresponds to that of
+   * {@link MavenRepository#resolveDirect(Dependency)}: it starts with the
+   * dependency itself followed by its resolved children.
+   * <p>
+   * The children are those recorded before conflicts have been resolved, so
+   * an artifact reached from several parents is reported for each of them. If
+   * a child has lost a conflict against another version of its artifact, the
+   * direct dependencies cannot be derived from the graph.
+   * </p>
+   *
+   * @param dependency the dependency whose direct dependencies are requested.
+   * @return the direct dependencies or <code>null</code> if the artifact of the
+   *         dependency or of any of its children is not part of this graph.
+   */
+  public MavenResponse resolveDirect(final Dependency dependency)
+  {
+    final DependencyNode node = nodes.get(createKey(dependency.getArtifact()));
+    if (node == null)
+    {
+      return null;
+    }
+
+    final MavenResponse response = new MavenResponse();
+    if (MavenRepository.isResolved(node, flagger, collectOnly))
+    {
+      response.add(node.getDependency());
+    }
+    for (final DependencyNode child : DeclaredChildrenRecorder
+        .getDeclaredChildren(node))
+    {
+      final Dependency childDependency = child.getDependency();
+      final DependencyNode resolved =
+          nodes.get(createKey(childDependency.getArtifact()));
+      if (resolved == null)
+      {
+        return null;
+      }
+      if (MavenRepository.isResolved(resolved, flagger, collectOnly))
+      {
+        response.add(resolved == child ? childDependency : childDependency
+            .setArtifact(resolved.getDependency().getArtifact()));
+      }
+    }
+    response.setRootNode(node);
+    response.setFlagger(flagger);
+    return response;
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -17,16 +17,19 @@ package de.smartics.maven.plugin.jboss.modules.aether;
 
 import org.eclipse.aether.AbstractForwardingRepositorySystemSession;
 import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.collection.DependencyGraphTransformer;
 import org.eclipse.aether.collection.DependencySelector;
 import org.eclipse.aether.collection.DependencyTraverser;
 import org.eclipse.aether.util.graph.selector.AndDependencySelector;
 import org.eclipse.aether.util.graph.selector.OptionalDependencySelector;
 import org.eclipse.aether.util.graph.selector.ScopeDependencySelector;
+import org.eclipse.aether.util.graph.transformer.ChainedDependencyGraphTransformer;
 
 import de.smartics.maven.plugin.jboss.modules.util.Arg;
 
 /**
- * Used for pruning the dependency tree.
+ * Used for pruning the dependency tree. Records the children of the nodes of
+ * the collected tree before conflicts are resolved.
  */
 public class FilterSession extends AbstractForwardingRepositorySystemSession
 {
@@ -106,6 +109,19 @@ public class FilterSession extends AbstractForwardingRepositorySystemSession
     }
   }
 
+  @Override
+  public DependencyGraphTransformer getDependencyGraphTransformer()
+  {
+    final DependencyGraphTransformer transformer =
+        super.getDependencyGraphTransformer();
+    if (transformer == null)
+    {
+      return null;
+    }
+    return new ChainedDependencyGraphTransformer(
+        new DeclaredChildrenRecorder(), transformer);
+  }
+
   @Override
   protected RepositorySystemSession getSession()
   {
@@ -22,16 +22,20 @@ import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.collection.CollectResult;
+import org.eclipse.aether.collection.DependencyCollectionException;
 import org.eclipse.aether.collection.DependencyTraverser;
 import org.eclipse.aether.graph.Dependency;
 import org.eclipse.aether.graph.DependencyFilter;
 import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.graph.DependencyVisitor;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.DependencyRequest;
 import org.eclipse.aether.resolution.DependencyResolutionException;
 import org.eclipse.aether.resolution.DependencyResult;
 import org.eclipse.aether.util.filter.AndDependencyFilter;
-import org.eclipse.aether.util.graph.visitor.PreorderNodeListGenerator;
+import org.eclipse.aether.util.graph.visitor.FilteringDependencyVisitor;
+import org.eclipse.aether.util.graph.visitor.TreeDependencyVisitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -89,6 +93,19 @@ public final class MavenRepository
    */
   private final DependencyTraverserGenerator traverserGenerator;
 
+  /**
+   * The resolver to resolve the artifacts of the collected dependency graph
+   * concurrently. If <code>null</code>, dependencies are resolved
+   * sequentially.
+   */
+  private final ParallelArtifactResolver parallelResolver;
+
+  /**
+   * The flag to only collect the dependency graph without resolving any
+   * artifact files.
+   */
+  private final boolean collectOnly;
+
   /**
    * The logger to log to.
    */
@@ -107,10 +124,35 @@ public final class MavenRepository
     this.managedDependencies = builder.getManagedDependencies();
     this.offline = builder.isOffline();
     this.traverserGenerator = builder.getTraverserGenerator();
+    final int resolutionThreads = builder.getResolutionThreads();
+    this.parallelResolver =
+        resolutionThreads > 1 ? new ParallelArtifactResolver(
+            repositorySystem, builder.getResolutionExecutor(),
+            resolutionThreads) : null;
+    this.collectOnly = builder.isCollectOnly();
   }
 
   // ****************************** Inner Classes *****************************
 
+  /**
+   * Visits the nodes of the graph without doing anything.
+   */
+  private static final class NullDependencyVisitor implements
+      DependencyVisitor
+  {
+    @Override
+    public boolean visitEnter(final DependencyNode node)
+    {
+      return true;
+    }
+
+    @Override
+    public boolean visitLeave(final DependencyNode node)
+    {
+      return true;
+    }
+  }
+
   // ********************************* Methods ********************************
 
   // --- init -----------------------------------------------------------------
@@ -162,11 +204,12 @@ public final class MavenRepository
     return configureRequest(collectRequest, transitive);
   }
 
-  private static MavenResponse createResult(
-      final PreorderNodeListGenerator generator)
+  private MavenResponse createResult(final DependencyNode rootNode,
+      final DependencyFlagger flagger, final DependencyCallback callback)
   {
     final MavenResponse response = new MavenResponse();
-    final List<DependencyNode> nodes = generator.getNodes();
+    response.setRootNode(rootNode);
+    response.setFlagger(flagger);
 
     // This is a kind of workaround: We should limit the collect request, but
     // have not enough information with the DependencySelector interface
@@ -174,17 +217,38 @@ public final class MavenRepository
     // (which has access to the parents) to resolve only those that meet our
     // constraints. Afterwards we skip all unresolved dependencies (which are
     // those that do not reference a file).
-    for (final DependencyNode node : nodes)
+    rootNode.accept(new ResolvedDependencyVisitor(flagger, collectOnly,
+        callback != null ? callback : response));
+    return response;
+  }
+
+  /**
+   * Checks if the dependency of the node has been resolved and the node has not
+   * been rejected by any filter.
+   *
+   * @param node the node to check.
+   * @param flagger the rejections of the request that resolved the node.
+   * @param collectOnly the flag indicating that the dependency has only been
+   *          collected. In this case the dependency is not required to
+   *          reference a file.
+   * @return <code>true</code> if the node has a dependency that references a
+   *         file (or has only been collected) and the node is not flagged,
+   *         <code>false</code> otherwise.
+   */
+  static boolean isResolved(final DependencyNode node,
+      final DependencyFlagger flagger, final boolean collectOnly)
+  {
+    final Dependency dependency = node.getDependency();
+    if (dependency == null)
     {
-      final Dependency dependency = node.getDependency();
-      final Artifact artifact = dependency.getArtifact();
-      if (!(artifact.getFile() == null || DependencyFlagger.INSTANCE
-          .isFlagged(dependency)))
-      {
-        response.add(dependency);
-      }
+      return false;
     }
-    return response;
+    final Artifact artifact = dependency.getArtifact();
+    if (!collectOnly && artifact.getFile() == null)
+    {
+      return false;
+    }
+    return !flagger.isFlagged(node);
   }
 
   /**
@@ -198,15 +262,42 @@ public final class MavenRepository
    */
   public MavenResponse resolve(final List<Dependency> dependencies)
     throws DependencyResolutionException
+  {
+    return resolve(dependencies, null);
+  }
+
+  /**
+   * Resolves the dependencies so that it is locally accessible and passes each
+   * resolved dependency to the callback while the dependency graph is visited.
+   *
+   * @param dependencies the rootDependencies to resolve.
+   * @param callback the callback to pass the resolved dependencies to. If
+   *          <code>null</code>, the resolved dependencies are added to the
+   *          response.
+   * @return the response providing access to the dependency graph. If a
+   *         callback is given, the response contains no dependencies.
+   * @throws DependencyResolutionException if the dependency tree could not be
+   *           built or any dependency artifact could not be resolved.
+   */
+  public MavenResponse resolve(final List<Dependency> dependencies,
+      final DependencyCallback callback) throws DependencyResolutionException
   {
     final DependencyRequest dependencyRequest =
         createRequest(dependencies, true);
-    return configureRequest(dependencyRequest, true);
+    return configureRequest(dependencyRequest, true, callback);
   }
 
   private MavenResponse configureRequest(
       final DependencyRequest dependencyRequest, final boolean isRootDependencies)
     throws DependencyResolutionException
+  {
+    return configureRequest(dependencyRequest, isRootDependencies, null);
+  }
+
+  private MavenResponse configureRequest(
+      final DependencyRequest dependencyRequest,
+      final boolean isRootDependencies, final DependencyCallback callback)
+    throws DependencyResolutionException
   {
     try
     {
@@ -216,12 +307,14 @@ public final class MavenRepository
       final FilterSession filterSession =
           new FilterSession(session, traverser,
               traverserGenerator.isIgnoreDependencyExclusions());
+      final DependencyFlagger flagger =
+          new DependencyFlagger(dependencyRequest.getFilter());
+      dependencyRequest.setFilter(flagger);
 
       DependencyResult result;
       try
       {
-        result = repositorySystem
-                .resolveDependencies(filterSession, dependencyRequest);
+        result = resolveDependencies(filterSession, dependencyRequest);
       }
       catch (final DependencyResolutionException e)
       {
@@ -238,13 +331,7 @@ public final class MavenRepository
         }
       }
 
-      final DependencyNode rootNode = result.getRoot();
-      final PreorderNodeListGenerator generator =
-          new PreorderNodeListGenerator();
-      rootNode.accept(generator);
-
-      final MavenResponse response = createResult(generator);
-      return response;
+      return createResult(result.getRoot(), flagger, callback);
     }
     catch (final NullPointerException e) // NOPMD aether problem
     {
@@ -254,6 +341,62 @@ public final class MavenRepository
     }
   }
 
+  private DependencyResult resolveDependencies(
+      final RepositorySystemSession filterSession,
+      final DependencyRequest dependencyRequest)
+    throws DependencyResolutionException
+  {
+    if (collectOnly)
+    {
+      return collectDependencies(filterSession, dependencyRequest);
+    }
+    if (parallelResolver != null)
+    {
+      return parallelResolver.resolveDependencies(filterSession,
+          dependencyRequest);
+    }
+    return repositorySystem.resolveDependencies(filterSession,
+        dependencyRequest);
+  }
+
+  private DependencyResult collectDependencies(
+      final RepositorySystemSession filterSession,
+      final DependencyRequest dependencyRequest)
+    throws DependencyResolutionException
+  {
+    final DependencyResult result = new DependencyResult(dependencyRequest);
+    CollectResult collectResult;
+    DependencyCollectionException exception = null;
+    try
+    {
+      collectResult =
+          repositorySystem.collectDependencies(filterSession,
+              dependencyRequest.getCollectRequest());
+    }
+    catch (final DependencyCollectionException e)
+    {
+      collectResult = e.getResult();
+      exception = e;
+    }
+    result.setRoot(collectResult.getRoot());
+    result.setCycles(collectResult.getCycles());
+    result.setCollectExceptions(collectResult.getExceptions());
+
+    // A partial graph is still used for non-root dependencies, so its rejected
+    // nodes have to be flagged, too.
+    if (result.getRoot() != null)
+    {
+      result.getRoot().accept(
+          new TreeDependencyVisitor(new FilteringDependencyVisitor(
+              new NullDependencyVisitor(), dependencyRequest.getFilter())));
+    }
+    if (exception != null)
+    {
+      throw new DependencyResolutionException(result, exception);
+    }
+    return result;
+  }
+
   private DependencyRequest createRequest(final List<Dependency> dependencies,
       final boolean transitive)
   {
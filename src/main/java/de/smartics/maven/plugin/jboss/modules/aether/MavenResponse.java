@@ -19,11 +19,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+
+import de.smartics.maven.plugin.jboss.modules.aether.filter.DependencyFlagger;
 
 /**
  * The Maven response with calculated dependencies.
  */
-public final class MavenResponse
+public final class MavenResponse implements DependencyCallback
 {
   // ********************************* Fields *********************************
 
@@ -36,6 +39,17 @@ public final class MavenResponse
    */
   private final List<Dependency> dependencies = new ArrayList<Dependency>();
 
+  /**
+   * The root node of the dependency graph the dependencies have been calculated
+   * from. May be <code>null</code>.
+   */
+  private DependencyNode rootNode;
+
+  /**
+   * The rejections of the request the dependencies have been calculated by.
+   */
+  private DependencyFlagger flagger = new DependencyFlagger();
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -55,6 +69,50 @@ public final class MavenResponse
 
   // --- get&set --------------------------------------------------------------
 
+  /**
+   * Returns the root node of the dependency graph the dependencies have been
+   * calculated from.
+   *
+   * @return the root node of the dependency graph. May be <code>null</code>.
+   */
+  public DependencyNode getRootNode()
+  {
+    return rootNode;
+  }
+
+  /**
+   * Sets the root node of the dependency graph the dependencies have been
+   * calculated from.
+   *
+   * @param rootNode the root node of the dependency graph.
+   */
+  public void setRootNode(final DependencyNode rootNode)
+  {
+    this.rootNode = rootNode;
+  }
+
+  /**
+   * Returns the rejections of the request the dependencies have been
+   * calculated by.
+   *
+   * @return the rejections of the request.
+   */
+  public DependencyFlagger getFlagger()
+  {
+    return flagger;
+  }
+
+  /**
+   * Sets the rejections of the request the dependencies have been calculated
+   * by.
+   *
+   * @param flagger the rejections of the request.
+   */
+  public void setFlagger(final DependencyFlagger flagger)
+  {
+    this.flagger = flagger;
+  }
+
   // --- business -------------------------------------------------------------
 
   /**
@@ -77,6 +135,17 @@ public final class MavenResponse
     return dependencies;
   }
 
+  /**
+   * Adds the dependency to the calculated dependencies.
+   *
+   * @param dependency the dependency to add.
+   */
+  @Override
+  public void accept(final Dependency dependency)
+  {
+    add(dependency);
+  }
+
   // --- object basics --------------------------------------------------------
 
 }
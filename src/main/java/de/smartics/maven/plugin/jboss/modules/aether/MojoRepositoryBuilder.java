@@ -16,6 +16,7 @@
 package de.smartics.maven.plugin.jboss.modules.aether;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
@@ -71,6 +72,22 @@ public final class MojoRepositoryBuilder implements RepositoryBuilder
    */
   private DependencyTraverserGenerator traverserGenerator;
 
+  /**
+   * The maximum number of threads to resolve artifacts concurrently.
+   */
+  private int resolutionThreads = 1;
+
+  /**
+   * The pool to resolve artifacts concurrently on.
+   */
+  private ExecutorService resolutionExecutor;
+
+  /**
+   * The flag to only collect the dependency graph without resolving any
+   * artifact files.
+   */
+  private boolean collectOnly;
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -223,6 +240,68 @@ public final class MojoRepositoryBuilder implements RepositoryBuilder
     return this;
   }
 
+  @Override
+  public int getResolutionThreads()
+  {
+    return resolutionThreads;
+  }
+
+  /**
+   * Sets the maximum number of threads to resolve artifacts concurrently.
+   *
+   * @param resolutionThreads the maximum number of threads to resolve
+   *          artifacts concurrently. A value of one or less resolves all
+   *          artifacts sequentially.
+   * @return a reference to this builder.
+   */
+  public MojoRepositoryBuilder withResolutionThreads(
+      final int resolutionThreads)
+  {
+    this.resolutionThreads = resolutionThreads;
+    return this;
+  }
+
+  @Override
+  public ExecutorService getResolutionExecutor()
+  {
+    return resolutionExecutor;
+  }
+
+  /**
+   * Sets the pool to resolve artifacts concurrently on. The pool is not shut
+   * down by the repository.
+   *
+   * @param resolutionExecutor the pool to resolve artifacts concurrently on.
+   *          Required if more than one resolution thread is requested.
+   * @return a reference to this builder.
+   */
+  public MojoRepositoryBuilder withResolutionExecutor(
+      final ExecutorService resolutionExecutor)
+  {
+    this.resolutionExecutor = resolutionExecutor;
+    return this;
+  }
+
+  @Override
+  public boolean isCollectOnly()
+  {
+    return collectOnly;
+  }
+
+  /**
+   * Sets the flag to only collect the dependency graph without resolving any
+   * artifact files.
+   *
+   * @param collectOnly the flag to only collect the dependency graph without
+   *          resolving any artifact files.
+   * @return a reference to this builder.
+   */
+  public MojoRepositoryBuilder withCollectOnly(final boolean collectOnly)
+  {
+    this.collectOnly = collectOnly;
+    return this;
+  }
+
   // --- business -------------------------------------------------------------
 
   /**
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.aether;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.collection.CollectResult;
+import org.eclipse.aether.collection.DependencyCollectionException;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.graph.DependencyVisitor;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.eclipse.aether.resolution.DependencyResult;
+import org.eclipse.aether.util.graph.visitor.FilteringDependencyVisitor;
+import org.eclipse.aether.util.graph.visitor.TreeDependencyVisitor;
+
+import de.smartics.maven.plugin.jboss.modules.util.Arg;
+
+/**
+ * Resolves dependencies by collecting the dependency graph first and then
+ * resolving the artifacts of all accepted nodes in batches on a bounded pool
+ * of threads. The resolved files are stitched back into the nodes of the graph
+ * so that the result is equivalent to
+ * {@link RepositorySystem#resolveDependencies(RepositorySystemSession, DependencyRequest)}
+ * .
+ */
+@ThreadSafe
+final class ParallelArtifactResolver
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * Resolver for artifact repositories.
+   */
+  private final RepositorySystem repositorySystem;
+
+  /**
+   * The maximum number of artifact batches resolved concurrently.
+   */
+  private final int threads;
+
+  /**
+   * The pool to resolve artifact batches on. The pool is owned by the caller.
+   */
+  private final ExecutorService executor;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @param repositorySystem the resolver for artifact repositories.
+   * @param executor the pool to resolve artifact batches on. The pool is not
+   *          shut down by this resolver.
+   * @param threads the maximum number of artifact batches resolved
+   *          concurrently.
+   * @throws NullPointerException if {@code repositorySystem} or
+   *           {@code executor} is <code>null</code>.
+   * @throws IllegalArgumentException if {@code threads} is less than one.
+   */
+  ParallelArtifactResolver(final RepositorySystem repositorySystem,
+      final ExecutorService executor, final int threads)
+    throws NullPointerException, IllegalArgumentException
+  {
+    this.repositorySystem =
+        Arg.checkNotNull("repositorySystem", repositorySystem);
+    this.executor = Arg.checkNotNull("executor", executor);
+    if (threads < 1)
+    {
+      throw new IllegalArgumentException(
+          "The number of threads must be at least one, but is " + threads
+              + '.');
+    }
+    this.threads = threads;
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Creates a request for the artifact of each visited node.
+   */
+  private static final class ArtifactRequestCollector implements
+      DependencyVisitor
+  {
+    /**
+     * The requests for the visited nodes.
+     */
+    private final List<ArtifactRequest> requests =
+        new ArrayList<ArtifactRequest>();
+
+    @Override
+    public boolean visitEnter(final DependencyNode node)
+    {
+      if (node.getDependency() != null)
+      {
+        requests.add(new ArtifactRequest(node));
+      }
+      return true;
+    }
+
+    @Override
+    public boolean visitLeave(final DependencyNode node)
+    {
+      return true;
+    }
+  }
+
+  /**
+   * The results of resolving one batch of artifact requests.
+   */
+  private static final class BatchResult
+  {
+    /**
+     * The result for each request of the batch.
+     */
+    private final List<ArtifactResult> results;
+
+    /**
+     * The problem encountered resolving the batch. May be <code>null</code>.
+     */
+    private final ArtifactResolutionException exception;
+
+    private BatchResult(final List<ArtifactResult> results,
+        final ArtifactResolutionException exception)
+    {
+      this.results = results;
+      this.exception = exception;
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Collects the dependency graph of the request and resolves the artifacts of
+   * all nodes accepted by the filter of the request. As with Aether, the
+   * artifacts of a partially collected graph are resolved before the problem
+   * collecting the graph is reported.
+   *
+   * @param session the session to run the requests with.
+   * @param request the request to resolve.
+   * @return the result with the graph whose nodes reference the resolved
+   *         files.
+   * @throws DependencyResolutionException if the dependency graph could not be
+   *           collected or any artifact could not be resolved. The result of
+   *           the exception provides the partially resolved graph.
+   */
+  DependencyResult resolveDependencies(final RepositorySystemSession session,
+      final DependencyRequest request) throws DependencyResolutionException
+  {
+    final DependencyResult result = new DependencyResult(request);
+    final DependencyCollectionException collectException =
+        collect(session, request, result);
+    final DependencyNode root = result.getRoot();
+    if (root == null)
+    {
+      throw new DependencyResolutionException(result, collectException);
+    }
+
+    final ArtifactRequestCollector collector = new ArtifactRequestCollector();
+    root.accept(new TreeDependencyVisitor(new FilteringDependencyVisitor(
+        collector, request.getFilter())));
+    final List<ArtifactRequest> requests = collector.requests;
+
+    final List<ArtifactResult> results = new ArrayList<ArtifactResult>(
+        requests.size());
+    final ArtifactResolutionException exception =
+        resolveArtifacts(session, requests, results);
+    result.setArtifactResults(results);
+
+    if (collectException != null)
+    {
+      throw new DependencyResolutionException(result, collectException);
+    }
+    if (exception != null)
+    {
+      throw new DependencyResolutionException(result, exception);
+    }
+    return result;
+  }
+
+  private DependencyCollectionException collect(
+      final RepositorySystemSession session, final DependencyRequest request,
+      final DependencyResult result)
+  {
+    CollectResult collectResult;
+    DependencyCollectionException exception = null;
+    try
+    {
+      collectResult =
+          repositorySystem.collectDependencies(session,
+              request.getCollectRequest());
+    }
+    catch (final DependencyCollectionException e)
+    {
+      collectResult = e.getResult();
+      exception = e;
+    }
+    result.setRoot(collectResult.getRoot());
+    result.setCycles(collectResult.getCycles());
+    result.setCollectExceptions(collectResult.getExceptions());
+    return exception;
+  }
+
+  private ArtifactResolutionException resolveArtifacts(
+      final RepositorySystemSession session,
+      final List<ArtifactRequest> requests, final List<ArtifactResult> results)
+  {
+    final int batchCount = Math.min(threads, requests.size());
+    if (batchCount <= 1)
+    {
+      final BatchResult batch = resolveBatch(session, requests);
+      return stitch(requests, batch, results, null);
+    }
+
+    final int batchSize = (requests.size() + batchCount - 1) / batchCount;
+    final List<List<ArtifactRequest>> batches =
+        new ArrayList<List<ArtifactRequest>>(batchCount);
+    final List<Future<BatchResult>> futures =
+        new ArrayList<Future<BatchResult>>(batchCount);
+    for (int start = 0; start < requests.size(); start += batchSize)
+    {
+      final List<ArtifactRequest> batch =
+          requests.subList(start, Math.min(start + batchSize, requests.size()));
+      batches.add(batch);
+      futures.add(executor.submit(new Callable<BatchResult>()
+      {
+        @Override
+        public BatchResult call()
+        {
+          return resolveBatch(session, batch);
+        }
+      }));
+    }
+
+    ArtifactResolutionException exception = null;
+    for (int i = 0; i < futures.size(); i++)
+    {
+      final BatchResult batch = await(futures, i);
+      exception = stitch(batches.get(i), batch, results, exception);
+    }
+    return exception;
+  }
+
+  private BatchResult resolveBatch(final RepositorySystemSession session,
+      final List<ArtifactRequest> batch)
+  {
+    try
+    {
+      return new BatchResult(
+          repositorySystem.resolveArtifacts(session, batch), null);
+    }
+    catch (final ArtifactResolutionException e)
+    {
+      return new BatchResult(e.getResults(), e);
+    }
+  }
+
+  private static BatchResult await(final List<Future<BatchResult>> futures,
+      final int index)
+  {
+    try
+    {
+      return futures.get(index).get();
+    }
+    catch (final InterruptedException e)
+    {
+      for (final Future<BatchResult> future : futures)
+      {
+        future.cancel(true);
+      }
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+          "Interrupted while resolving artifacts.", e);
+    }
+    catch (final ExecutionException e)
+    {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException)
+      {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException("Cannot resolve artifacts.", cause);
+    }
+  }
+
+  private static ArtifactResolutionException stitch(
+      final List<ArtifactRequest> requests, final BatchResult batch,
+      final List<ArtifactResult> results,
+      final ArtifactResolutionException previous)
+  {
+    for (int i = 0; i < requests.size(); i++)
+    {
+      final ArtifactResult result = batch.results.get(i);
+      final Artifact artifact = result.getArtifact();
+      if (artifact != null)
+      {
+        requests.get(i).getDependencyNode().setArtifact(artifact);
+      }
+      results.add(result);
+    }
+    return previous != null ? previous : batch.exception;
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -17,12 +17,12 @@ package de.smartics.maven.plugin.jboss.modules.aether;
 
 import java.util.List;
 
-import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.collection.DependencyTraverser;
 import org.eclipse.aether.graph.Dependency;
 
 import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
 import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
+import de.smartics.maven.plugin.jboss.modules.util.Arg;
 
 /**
  * Prunes the dependency tree upon information on excluded artifacts and skipped
@@ -37,14 +37,9 @@ public class PruningDependencyTraverser extends DelegateDependencyTraverser
   // --- members --------------------------------------------------------------
 
   /**
-   * The artifacts to exclude.
+   * The index on the artifacts to exclude and the modules to skip.
    */
-  private final List<ArtifactClusion> exclusions;
-
-  /**
-   * The list of modules to skip.
-   */
-  private final List<ModuleDescriptor> skipModules;
+  private final PruningIndex index;
 
   // ****************************** Initializer *******************************
 
@@ -62,10 +57,25 @@ public class PruningDependencyTraverser extends DelegateDependencyTraverser
   public PruningDependencyTraverser(final DependencyTraverser delegate,
       final List<ArtifactClusion> exclusions,
       final List<ModuleDescriptor> skipModules) throws NullPointerException
+  {
+    this(delegate, new PruningIndex(exclusions, skipModules));
+  }
+
+  /**
+   * Constructor sharing an index with other traversers.
+   *
+   * @param delegate the traverse to delegate to after own check is not
+   *          rejecting.
+   * @param index the index on the artifacts to exclude and the modules to
+   *          skip.
+   * @throws NullPointerException if {@code delegate} or {@code index} is
+   *           <code>null</code>.
+   */
+  public PruningDependencyTraverser(final DependencyTraverser delegate,
+      final PruningIndex index) throws NullPointerException
   {
     super(delegate);
-    this.exclusions = exclusions;
-    this.skipModules = skipModules;
+    this.index = Arg.checkNotNull("index", index);
   }
 
   // ****************************** Inner Classes *****************************
@@ -81,26 +91,7 @@ public class PruningDependencyTraverser extends DelegateDependencyTraverser
   @Override
   protected boolean doTraverseDependency(final Dependency dependency)
   {
-    final Artifact artifact = dependency.getArtifact();
-    for (final ArtifactClusion exclusion : exclusions)
-    {
-      final boolean exclude = exclusion.matches(artifact).isMatched();
-      if (exclude)
-      {
-        return false;
-      }
-    }
-
-    for (final ModuleDescriptor module : skipModules)
-    {
-      final boolean exclude = module.match(artifact).isMatched();
-      if (exclude)
-      {
-        return false;
-      }
-    }
-
-    return true;
+    return !index.isPruned(dependency.getArtifact());
   }
 
   // --- object basics --------------------------------------------------------
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.aether;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.eclipse.aether.artifact.Artifact;
+
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusionIndex;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
+
+/**
+ * Decides whether an artifact is to be pruned from the dependency graph
+ * because it is excluded or matches a module to skip. The rules are indexed by
+ * an {@link ArtifactClusionIndex} so that only the rules that may match an
+ * artifact have to be evaluated.
+ * <p>
+ * Since rules only examine the groupId and artifactId of an artifact, the
+ * verdict is cached per <code>groupId:artifactId</code>.
+ * </p>
+ */
+@ThreadSafe
+public final class PruningIndex
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The rules indexed by the clusions they are associated with.
+   */
+  private final ArtifactClusionIndex<Rule> rules =
+      new ArtifactClusionIndex<Rule>();
+
+  /**
+   * The verdicts already calculated, indexed by
+   * <code>groupId:artifactId</code>.
+   */
+  private final ConcurrentMap<String, Boolean> verdicts =
+      new ConcurrentHashMap<String, Boolean>();
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @param exclusions the artifacts to exclude.
+   * @param skipModules the list of modules to skip.
+   */
+  public PruningIndex(final List<ArtifactClusion> exclusions,
+      final List<ModuleDescriptor> skipModules)
+  {
+    if (exclusions != null)
+    {
+      for (final ArtifactClusion exclusion : exclusions)
+      {
+        rules.add(exclusion, new ClusionRule(exclusion));
+      }
+    }
+    if (skipModules != null)
+    {
+      for (final ModuleDescriptor module : skipModules)
+      {
+        final Rule rule = new ModuleRule(module);
+        final List<ArtifactClusion> includes =
+            module.getMatcher().getIncludes();
+        if (includes != null)
+        {
+          for (final ArtifactClusion include : includes)
+          {
+            rules.add(include, rule);
+          }
+        }
+      }
+    }
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * A rule to decide whether an artifact is to be pruned.
+   */
+  private interface Rule
+  {
+    /**
+     * Checks if the artifact is to be pruned.
+     *
+     * @param artifact the artifact to check.
+     * @return <code>true</code> if the artifact is to be pruned,
+     *         <code>false</code> otherwise.
+     */
+    boolean prunes(Artifact artifact);
+  }
+
+  /**
+   * Prunes artifacts matching an exclusion.
+   */
+  private static final class ClusionRule implements Rule
+  {
+    /**
+     * The exclusion to match.
+     */
+    private final ArtifactClusion exclusion;
+
+    private ClusionRule(final ArtifactClusion exclusion)
+    {
+      this.exclusion = exclusion;
+    }
+
+    @Override
+    public boolean prunes(final Artifact artifact)
+    {
+      return exclusion.matches(artifact).isMatched();
+    }
+  }
+
+  /**
+   * Prunes artifacts matching a module to skip.
+   */
+  private static final class ModuleRule implements Rule
+  {
+    /**
+     * The module to match.
+     */
+    private final ModuleDescriptor module;
+
+    private ModuleRule(final ModuleDescriptor module)
+    {
+      this.module = module;
+    }
+
+    @Override
+    public boolean prunes(final Artifact artifact)
+    {
+      return module.match(artifact).isMatched();
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Checks if the artifact is to be pruned from the dependency graph.
+   *
+   * @param artifact the artifact to check.
+   * @return <code>true</code> if the artifact is excluded or matches a module
+   *         to skip, <code>false</code> otherwise.
+   */
+  public boolean isPruned(final Artifact artifact)
+  {
+    final String key = artifact.getGroupId() + ':' + artifact.getArtifactId();
+    final Boolean cached = verdicts.get(key);
+    if (cached != null)
+    {
+      return cached;
+    }
+
+    final boolean verdict = calcVerdict(artifact);
+    verdicts.putIfAbsent(key, verdict);
+    return verdict;
+  }
+
+  private boolean calcVerdict(final Artifact artifact)
+  {
+    final List<Rule> candidates = new ArrayList<Rule>();
+    rules.collectCandidates(artifact, candidates);
+    for (final Rule rule : candidates)
+    {
+      if (rule.prunes(artifact))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
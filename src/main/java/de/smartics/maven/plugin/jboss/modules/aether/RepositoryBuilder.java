@@ -16,6 +16,7 @@
 package de.smartics.maven.plugin.jboss.modules.aether;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
@@ -92,6 +93,33 @@ public interface RepositoryBuilder
    */
   DependencyTraverserGenerator getTraverserGenerator();
 
+  /**
+   * Returns the maximum number of threads to resolve artifacts concurrently. A
+   * value of one or less resolves all artifacts sequentially.
+   *
+   * @return the maximum number of threads to resolve artifacts concurrently.
+   */
+  int getResolutionThreads();
+
+  /**
+   * Returns the pool to resolve artifacts concurrently on. The pool is owned
+   * by the caller, who shuts it down, and may be shared by several
+   * repositories. Required if more than one resolution thread is requested.
+   *
+   * @return the pool to resolve artifacts concurrently on. May be
+   *         <code>null</code> if artifacts are resolved sequentially.
+   */
+  ExecutorService getResolutionExecutor();
+
+  /**
+   * Checks whether to only collect the dependency graph without resolving any
+   * artifact files.
+   *
+   * @return <code>true</code> if only the dependency graph is collected,
+   *         <code>false</code> if artifact files are resolved.
+   */
+  boolean isCollectOnly();
+
   // --- business -------------------------------------------------------------
 
   // --- object basics --------------------------------------------------------
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.aether;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+
+import de.smartics.maven.plugin.jboss.modules.util.Arg;
+
+/**
+ * Stores the resolved dependencies of a build in a file to reuse them in later
+ * builds. The stored dependencies are only reused if the digest of the
+ * resolution input matches and every referenced file still exists. The
+ * properties of the artifacts are stored, too, since they are part of the
+ * generated module descriptors.
+ * Dependencies that do not reference a file, because they have only been
+ * collected, are stored without a file and are reused without checking for
+ * a file.
+ */
+public final class ResolutionCache
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The encoding of the cache file.
+   */
+  private static final String ENCODING = "UTF-8";
+
+  /**
+   * The prefix of the line storing the digest.
+   */
+  private static final String DIGEST_PREFIX = "# digest ";
+
+  /**
+   * The separator of the fields of a dependency line.
+   */
+  private static final char SEPARATOR = '\t';
+
+  /**
+   * The number of fields of a dependency line.
+   */
+  private static final int FIELD_COUNT = 6;
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The file to store the resolved dependencies to.
+   */
+  private final File cacheFile;
+
+  /**
+   * The digest of the input of the resolution.
+   */
+  private final String digest;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @param cacheFile the file to store the resolved dependencies to.
+   * @param digest the digest of the input of the resolution.
+   * @throws NullPointerException if {@code cacheFile} is <code>null</code>.
+   * @throws IllegalArgumentException if {@code digest} is blank.
+   */
+  public ResolutionCache(final File cacheFile, final String digest)
+    throws NullPointerException, IllegalArgumentException
+  {
+    this.cacheFile = Arg.checkNotNull("cacheFile", cacheFile);
+    this.digest = Arg.checkNotBlank("digest", digest);
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the file to store the resolved dependencies to.
+   *
+   * @return the file to store the resolved dependencies to.
+   */
+  public File getCacheFile()
+  {
+    return cacheFile;
+  }
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Reads the cached dependencies.
+   *
+   * @return the cached dependencies or <code>null</code> if there is no cache
+   *         file, the digest does not match or any referenced file does no
+   *         longer exist.
+   * @throws IOException on any problem reading the cache file.
+   */
+  public List<Dependency> read() throws IOException
+  {
+    if (!cacheFile.isFile())
+    {
+      return null;
+    }
+
+    final List<String> lines = FileUtils.readLines(cacheFile, ENCODING);
+    if (lines.isEmpty() || !(DIGEST_PREFIX + digest).equals(lines.get(0)))
+    {
+      return null;
+    }
+
+    final List<Dependency> dependencies =
+        new ArrayList<Dependency>(lines.size() - 1);
+    for (final String line : lines.subList(1, lines.size()))
+    {
+      if (StringUtils.isBlank(line))
+      {
+        continue;
+      }
+      final Dependency dependency = parse(line);
+      if (dependency == null)
+      {
+        return null;
+      }
+      dependencies.add(dependency);
+    }
+    return dependencies;
+  }
+
+  private static Dependency parse(final String line)
+    throws UnsupportedEncodingException
+  {
+    final String[] fields =
+        StringUtils.splitPreserveAllTokens(line, SEPARATOR);
+    if (fields.length != FIELD_COUNT)
+    {
+      return null;
+    }
+
+    final File file =
+        StringUtils.isEmpty(fields[5]) ? null : new File(fields[5]);
+    if (file != null && !file.isFile())
+    {
+      return null;
+    }
+
+    final String[] coordinates =
+        StringUtils.splitPreserveAllTokens(fields[0], ':');
+    if (coordinates.length != 5)
+    {
+      return null;
+    }
+    final Artifact artifact =
+        new DefaultArtifact(coordinates[0], coordinates[1], coordinates[3],
+            coordinates[2], coordinates[4], parseProperties(fields[4]), file);
+
+    final List<Exclusion> exclusions = new ArrayList<Exclusion>();
+    for (final String exclusion : StringUtils.split(fields[3], ','))
+    {
+      final String[] ids = StringUtils.splitPreserveAllTokens(exclusion, ':');
+      if (ids.length == 4)
+      {
+        exclusions.add(new Exclusion(ids[0], ids[1], ids[2], ids[3]));
+      }
+    }
+    return new Dependency(artifact, fields[1], Boolean.valueOf(fields[2]),
+        exclusions);
+  }
+
+  private static Map<String, String> parseProperties(final String field)
+    throws UnsupportedEncodingException
+  {
+    final Map<String, String> properties = new LinkedHashMap<String, String>();
+    for (final String property : StringUtils.split(field, ','))
+    {
+      final String[] keyValue =
+          StringUtils.splitPreserveAllTokens(property, '=');
+      if (keyValue.length == 2)
+      {
+        properties.put(URLDecoder.decode(keyValue[0], ENCODING),
+            URLDecoder.decode(keyValue[1], ENCODING));
+      }
+    }
+    return properties;
+  }
+
+  /**
+   * Writes the given dependencies to the cache file. Dependencies that do not
+   * reference a file are stored without a file.
+   *
+   * @param dependencies the resolved dependencies to store.
+   * @throws IOException on any problem writing the cache file.
+   */
+  public void write(final List<Dependency> dependencies) throws IOException
+  {
+    final List<String> lines = new ArrayList<String>(dependencies.size() + 1);
+    lines.add(DIGEST_PREFIX + digest);
+    for (final Dependency dependency : dependencies)
+    {
+      final Artifact artifact = dependency.getArtifact();
+      final File file = artifact.getFile();
+      final StringBuilder buffer = new StringBuilder(256);
+      buffer.append(artifact.getGroupId()).append(':')
+          .append(artifact.getArtifactId()).append(':')
+          .append(artifact.getExtension()).append(':')
+          .append(artifact.getClassifier()).append(':')
+          .append(artifact.getVersion());
+      buffer.append(SEPARATOR).append(dependency.getScope());
+      buffer.append(SEPARATOR).append(dependency.isOptional());
+      buffer.append(SEPARATOR);
+      boolean first = true;
+      for (final Exclusion exclusion : dependency.getExclusions())
+      {
+        if (!first)
+        {
+          buffer.append(',');
+        }
+        buffer.append(exclusion.getGroupId()).append(':')
+            .append(exclusion.getArtifactId()).append(':')
+            .append(exclusion.getClassifier()).append(':')
+            .append(exclusion.getExtension());
+        first = false;
+      }
+      buffer.append(SEPARATOR);
+      appendProperties(buffer, artifact.getProperties());
+      buffer.append(SEPARATOR);
+      if (file != null)
+      {
+        buffer.append(file.getAbsolutePath());
+      }
+      lines.add(buffer.toString());
+    }
+    FileUtils.writeLines(cacheFile, ENCODING, lines, "\n");
+  }
+
+  private static void appendProperties(final StringBuilder buffer,
+      final Map<String, String> properties) throws UnsupportedEncodingException
+  {
+    boolean first = true;
+    for (final Map.Entry<String, String> property : new TreeMap<String, String>(
+        properties).entrySet())
+    {
+      if (!first)
+      {
+        buffer.append(',');
+      }
+      buffer.append(URLEncoder.encode(property.getKey(), ENCODING)).append('=')
+          .append(URLEncoder.encode(property.getValue(), ENCODING));
+      first = false;
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
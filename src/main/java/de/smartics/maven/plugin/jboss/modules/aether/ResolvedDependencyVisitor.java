@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.aether;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.graph.DependencyVisitor;
+
+import de.smartics.maven.plugin.jboss.modules.aether.filter.DependencyFlagger;
+
+/**
+ * Passes the resolved dependencies of a dependency graph in preorder to a
+ * callback. Nodes without a resolved artifact and nodes rejected by the filter
+ * of the request are skipped. Each artifact is passed only once, even if it is
+ * referenced by several nodes.
+ */
+@NotThreadSafe
+final class ResolvedDependencyVisitor implements DependencyVisitor
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The rejections of the request that resolved the graph.
+   */
+  private final DependencyFlagger flagger;
+
+  /**
+   * The flag indicating that the graph has only been collected and its nodes
+   * do not reference artifact files.
+   */
+  private final boolean collectOnly;
+
+  /**
+   * The callback to pass the resolved dependencies to.
+   */
+  private final DependencyCallback callback;
+
+  /**
+   * The nodes already visited to not descend into shared subgraphs twice.
+   */
+  private final Set<DependencyNode> visitedNodes = Collections
+      .newSetFromMap(new IdentityHashMap<DependencyNode, Boolean>());
+
+  /**
+   * The coordinates of the artifacts already passed to the callback.
+   */
+  private final Set<String> passedArtifacts = new HashSet<String>();
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @param flagger the rejections of the request that resolved the graph.
+   * @param collectOnly the flag indicating that the graph has only been
+   *          collected and its nodes do not reference artifact files.
+   * @param callback the callback to pass the resolved dependencies to.
+   */
+  ResolvedDependencyVisitor(final DependencyFlagger flagger,
+      final boolean collectOnly, final DependencyCallback callback)
+  {
+    this.flagger = flagger;
+    this.collectOnly = collectOnly;
+    this.callback = callback;
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  @Override
+  public boolean visitEnter(final DependencyNode node)
+  {
+    if (!visitedNodes.add(node))
+    {
+      return false;
+    }
+
+    if (MavenRepository.isResolved(node, flagger, collectOnly))
+    {
+      final Dependency dependency = node.getDependency();
+      if (passedArtifacts.add(DependencyGraph.createKey(dependency
+          .getArtifact())))
+      {
+        callback.accept(dependency);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean visitLeave(final DependencyNode node)
+  {
+    return true;
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.aether.filter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+
+import de.smartics.maven.plugin.jboss.modules.domain.ArtifactKey;
+import de.smartics.maven.plugin.jboss.modules.domain.TransitiveDependencyResolver;
+import de.smartics.maven.plugin.jboss.modules.util.Arg;
+
+/**
+ * Caches the results of a {@link TransitiveDependencyResolver} per artifact.
+ * Each artifact is resolved only once, even if requested by concurrent
+ * threads. Failed resolutions are not cached.
+ */
+@ThreadSafe
+public class CachingTransitiveDependencyResolver implements
+    TransitiveDependencyResolver
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The resolver to delegate to on a cache miss.
+   */
+  private final TransitiveDependencyResolver delegate;
+
+  /**
+   * The maximum number of entries in the cache. A value less than or equal to
+   * zero does not bound the cache.
+   */
+  private final int maxEntries;
+
+  /**
+   * Interns the keys of the resolved artifacts. Only used if the cache is not
+   * bounded.
+   */
+  private final ArtifactKey.Pool keys;
+
+  /**
+   * The cached resolutions.
+   */
+  private final ConcurrentMap<CacheKey, FutureTask<List<Dependency>>> cache =
+      new ConcurrentHashMap<CacheKey, FutureTask<List<Dependency>>>();
+
+  /**
+   * The keys of the cache in insertion order to evict the oldest entries
+   * first.
+   */
+  private final Queue<CacheKey> insertionOrder =
+      new ConcurrentLinkedQueue<CacheKey>();
+
+  /**
+   * The number of requests served from the cache.
+   */
+  private final AtomicLong hitCount = new AtomicLong();
+
+  /**
+   * The number of requests delegated to the resolver.
+   */
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * The number of entries evicted from the cache.
+   */
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Constructor for an unbounded cache.
+   *
+   * @param delegate the resolver to delegate to on a cache miss.
+   * @throws NullPointerException if {@code delegate} is <code>null</code>.
+   */
+  public CachingTransitiveDependencyResolver(
+      final TransitiveDependencyResolver delegate) throws NullPointerException
+  {
+    this(delegate, 0);
+  }
+
+  /**
+   * Default constructor.
+   *
+   * @param delegate the resolver to delegate to on a cache miss.
+   * @param maxEntries the maximum number of entries in the cache. A value less
+   *          than or equal to zero does not bound the cache.
+   * @throws NullPointerException if {@code delegate} is <code>null</code>.
+   */
+  public CachingTransitiveDependencyResolver(
+      final TransitiveDependencyResolver delegate, final int maxEntries)
+    throws NullPointerException
+  {
+    this(delegate, maxEntries, new ArtifactKey.Pool());
+  }
+
+  /**
+   * Constructor to share the keys of artifacts with other components.
+   *
+   * @param delegate the resolver to delegate to on a cache miss.
+   * @param maxEntries the maximum number of entries in the cache. A value less
+   *          than or equal to zero does not bound the cache.
+   * @param keys the pool to intern the keys of the resolved artifacts. Only
+   *          used if the cache is not bounded, since the pool would retain the
+   *          keys of evicted entries.
+   * @throws NullPointerException if {@code delegate} or {@code keys} is
+   *           <code>null</code>.
+   */
+  public CachingTransitiveDependencyResolver(
+      final TransitiveDependencyResolver delegate, final int maxEntries,
+      final ArtifactKey.Pool keys) throws NullPointerException
+  {
+    this.delegate = Arg.checkNotNull("delegate", delegate);
+    this.maxEntries = maxEntries;
+    this.keys = Arg.checkNotNull("keys", keys);
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * The key of a cached resolution.
+   */
+  private static final class CacheKey
+  {
+    /**
+     * The key of the resolved artifact.
+     */
+    private final ArtifactKey artifact;
+
+    /**
+     * Whether only the direct dependencies are resolved.
+     */
+    private final boolean direct;
+
+    private CacheKey(final ArtifactKey artifact, final boolean direct)
+    {
+      this.artifact = artifact;
+      this.direct = direct;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return direct ? ~artifact.hashCode() : artifact.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object object)
+    {
+      if (this == object)
+      {
+        return true;
+      }
+      else if (object == null || getClass() != object.getClass())
+      {
+        return false;
+      }
+
+      final CacheKey other = (CacheKey) object;
+      return direct == other.direct && artifact.equals(other.artifact);
+    }
+
+    @Override
+    public String toString()
+    {
+      return (direct ? "d:" : "t:") + artifact;
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the number of requests served from the cache.
+   *
+   * @return the number of requests served from the cache.
+   */
+  public long getHitCount()
+  {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns the number of requests delegated to the resolver.
+   *
+   * @return the number of requests delegated to the resolver.
+   */
+  public long getMissCount()
+  {
+    return missCount.get();
+  }
+
+  /**
+   * Returns the number of entries evicted from the cache.
+   *
+   * @return the number of entries evicted from the cache.
+   */
+  public long getEvictionCount()
+  {
+    return evictionCount.get();
+  }
+
+  /**
+   * Returns the number of entries currently stored in the cache.
+   *
+   * @return the number of entries currently stored in the cache.
+   */
+  public int size()
+  {
+    return cache.size();
+  }
+
+  // --- business -------------------------------------------------------------
+
+  @Override
+  public List<Dependency> resolve(final Dependency dependency)
+    throws DependencyResolutionException
+  {
+    return fetch(createKey(dependency, false),
+        new Callable<List<Dependency>>()
+        {
+          @Override
+          public List<Dependency> call() throws DependencyResolutionException
+          {
+            return Collections.unmodifiableList(delegate.resolve(dependency));
+          }
+        });
+  }
+
+  @Override
+  public List<Dependency> resolveDirect(final Dependency dependency)
+    throws DependencyResolutionException
+  {
+    return fetch(createKey(dependency, true),
+        new Callable<List<Dependency>>()
+        {
+          @Override
+          public List<Dependency> call() throws DependencyResolutionException
+          {
+            return Collections.unmodifiableList(delegate
+                .resolveDirect(dependency));
+          }
+        });
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The resolution of root dependencies is not cached.
+   * </p>
+   */
+  @Override
+  public List<Dependency> resolve(final List<Dependency> dependencies)
+    throws DependencyResolutionException
+  {
+    return delegate.resolve(dependencies);
+  }
+
+  private CacheKey createKey(final Dependency dependency,
+      final boolean direct)
+  {
+    final Artifact artifact = dependency.getArtifact();
+    final ArtifactKey key =
+        maxEntries > 0 ? ArtifactKey.of(artifact) : keys.intern(artifact);
+    return new CacheKey(key, direct);
+  }
+
+  private List<Dependency> fetch(final CacheKey key,
+      final Callable<List<Dependency>> resolution)
+    throws DependencyResolutionException
+  {
+    FutureTask<List<Dependency>> task = cache.get(key);
+    if (task == null)
+    {
+      final FutureTask<List<Dependency>> newTask =
+          new FutureTask<List<Dependency>>(resolution);
+      task = cache.putIfAbsent(key, newTask);
+      if (task == null)
+      {
+        task = newTask;
+        missCount.incrementAndGet();
+        insertionOrder.add(key);
+        newTask.run();
+        evict();
+      }
+      else
+      {
+        hitCount.incrementAndGet();
+      }
+    }
+    else
+    {
+      hitCount.incrementAndGet();
+    }
+
+    try
+    {
+      return task.get();
+    }
+    catch (final InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while resolving '" + key
+                                      + "'.", e);
+    }
+    catch (final ExecutionException e)
+    {
+      if (cache.remove(key, task))
+      {
+        insertionOrder.remove(key);
+      }
+      final Throwable cause = e.getCause();
+      if (cause instanceof DependencyResolutionException)
+      {
+        throw (DependencyResolutionException) cause;
+      }
+      if (cause instanceof RuntimeException)
+      {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException("Cannot resolve '" + key + "'.", cause);
+    }
+  }
+
+  private void evict()
+  {
+    if (maxEntries <= 0)
+    {
+      return;
+    }
+
+    while (cache.size() > maxEntries)
+    {
+      final CacheKey key = insertionOrder.poll();
+      if (key == null)
+      {
+        return;
+      }
+      if (cache.remove(key) != null)
+      {
+        evictionCount.incrementAndGet();
+      }
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+  @Override
+  public String toString()
+  {
+    return "hits=" + hitCount + ", misses=" + missCount + ", evictions="
+           + evictionCount + ", size=" + cache.size();
+  }
+}
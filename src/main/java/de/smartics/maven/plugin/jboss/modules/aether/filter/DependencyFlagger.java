@@ -15,43 +15,64 @@
  */
 package de.smartics.maven.plugin.jboss.modules.aether.filter;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
-import org.eclipse.aether.artifact.Artifact;
-import org.eclipse.aether.graph.Dependency;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.eclipse.aether.graph.DependencyFilter;
 import org.eclipse.aether.graph.DependencyNode;
 
 /**
- * Adds properties to artifacts of a dependency.
+ * Records the nodes rejected by the filter of a dependency request. An instance
+ * belongs to exactly one request and wraps the filter of that request. Nodes
+ * are tracked by identity so that neither the artifacts nor the nodes have to
+ * be altered to mark a rejection.
  */
-public final class DependencyFlagger
+@NotThreadSafe
+public final class DependencyFlagger implements DependencyFilter
 {
   // ********************************* Fields *********************************
 
   // --- constants ------------------------------------------------------------
 
+  // --- members --------------------------------------------------------------
+
   /**
-   * The name of the reject flag.
+   * The filter to decide on the acceptance of nodes. May be <code>null</code>
+   * to accept all nodes.
    */
-  private static final String REJECT_FLAG = "smartics.collect.reject";
-
-  // --- members --------------------------------------------------------------
+  private final DependencyFilter filter;
 
   /**
-   * A singleton to reuse.
+   * The nodes rejected by the filter.
    */
-  public static final DependencyFlagger INSTANCE = new DependencyFlagger();
+  private final Set<DependencyNode> rejectedNodes = Collections
+      .newSetFromMap(new IdentityHashMap<DependencyNode, Boolean>());
 
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
 
   /**
-   * Default constructor.
+   * Default constructor for a flagger that accepts all nodes.
    */
   public DependencyFlagger()
   {
+    this(null);
+  }
+
+  /**
+   * Constructor to record the rejections of the given filter.
+   *
+   * @param filter the filter to decide on the acceptance of nodes. May be
+   *          <code>null</code> to accept all nodes.
+   */
+  public DependencyFlagger(final DependencyFilter filter)
+  {
+    this.filter = filter;
   }
 
   // ****************************** Inner Classes *****************************
@@ -64,39 +85,38 @@ public final class DependencyFlagger
 
   // --- business -------------------------------------------------------------
 
+  @Override
+  public boolean accept(final DependencyNode node,
+      final List<DependencyNode> parents)
+  {
+    final boolean accept = filter == null || filter.accept(node, parents);
+    if (!accept && node.getDependency() != null)
+    {
+      rejectedNodes.add(node);
+    }
+    return accept;
+  }
+
   /**
-   * Flags the artifact as being rejects.
+   * Flags the node as being rejected.
    *
    * @param node the node of the dependency to flag.
    */
   public void flag(final DependencyNode node)
   {
-    final Dependency dependency = node.getDependency();
-    final Artifact artifact = dependency.getArtifact();
-    node.setArtifact(flagRejection(artifact));
+    rejectedNodes.add(node);
   }
 
   /**
-   * Checks if the given dependency is flagged as its artifact being rejected.
+   * Checks if the given node is flagged as being rejected.
    *
-   * @param dependency the dependency to check.
-   * @return <code>true</code> of the artifact of this dependency is rejected,
-   *         <code>false</code> otherwise.
+   * @param node the node to check.
+   * @return <code>true</code> if the node is rejected, <code>false</code>
+   *         otherwise.
    */
-  public boolean isFlagged(final Dependency dependency)
-  {
-    final Artifact artifact = dependency.getArtifact();
-    final boolean flagged =
-        "true".equals(artifact.getProperty(REJECT_FLAG, null));
-    return flagged;
-  }
-
-  private Artifact flagRejection(final Artifact artifact)
+  public boolean isFlagged(final DependencyNode node)
   {
-    final Map<String, String> properties =
-        new HashMap<String, String>(artifact.getProperties());
-    properties.put(REJECT_FLAG, "true");
-    return artifact.setProperties(properties);
+    return rejectedNodes.contains(node);
   }
 
   // --- object basics --------------------------------------------------------
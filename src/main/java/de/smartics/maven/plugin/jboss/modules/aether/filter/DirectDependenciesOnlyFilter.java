@@ -69,12 +69,7 @@ public final class DirectDependenciesOnlyFilter implements Serializable,
       return false;
     }
 
-    final boolean isDirect = parents.size() <= 1;
-    if (!isDirect)
-    {
-      DependencyFlagger.INSTANCE.flag(node);
-    }
-    return isDirect;
+    return parents.size() <= 1;
   }
 
   // --- object basics --------------------------------------------------------
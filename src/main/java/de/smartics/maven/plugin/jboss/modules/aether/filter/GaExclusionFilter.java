@@ -80,7 +80,6 @@ public final class GaExclusionFilter implements DependencyFilter
       final boolean exclude = exclusion.matches(artifact).isMatched();
       if (exclude)
       {
-        DependencyFlagger.INSTANCE.flag(node);
         return false;
       }
     }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.aether.filter;
+
+import java.util.List;
+
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+
+import de.smartics.maven.plugin.jboss.modules.aether.DependencyGraph;
+import de.smartics.maven.plugin.jboss.modules.aether.MavenRepository;
+import de.smartics.maven.plugin.jboss.modules.aether.MavenResponse;
+import de.smartics.maven.plugin.jboss.modules.domain.TransitiveDependencyResolver;
+import de.smartics.maven.plugin.jboss.modules.util.Arg;
+
+/**
+ * Answers requests for direct dependencies from an already resolved
+ * {@link DependencyGraph}. Only artifacts not part of the graph are resolved by
+ * accessing the {@link MavenRepository}.
+ */
+public class GraphTransitiveDependencyResolver implements
+    TransitiveDependencyResolver
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The repository to access for resolving dependencies not found in the graph.
+   */
+  private final MavenRepository repository;
+
+  /**
+   * The graph of resolved dependencies to derive direct dependencies from.
+   */
+  private final DependencyGraph graph;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @param repository the repository to access for resolving dependencies not
+   *          found in the graph.
+   * @param graph the graph of resolved dependencies to derive direct
+   *          dependencies from.
+   * @throws NullPointerException if {@code repository} or {@code graph} is
+   *           <code>null</code>.
+   */
+  public GraphTransitiveDependencyResolver(final MavenRepository repository,
+      final DependencyGraph graph) throws NullPointerException
+  {
+    this.repository = Arg.checkNotNull("repository", repository);
+    this.graph = Arg.checkNotNull("graph", graph);
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  @Override
+  public List<Dependency> resolve(final Dependency dependency)
+    throws DependencyResolutionException
+  {
+    final MavenResponse response = repository.resolve(dependency);
+    return response.getDependencies();
+  }
+
+  @Override
+  public List<Dependency> resolve(final List<Dependency> rootDependencies)
+    throws DependencyResolutionException
+  {
+    final MavenResponse response = repository.resolve(rootDependencies);
+    return response.getDependencies();
+  }
+
+  @Override
+  public List<Dependency> resolveDirect(final Dependency dependency)
+    throws DependencyResolutionException
+  {
+    MavenResponse response = graph.resolveDirect(dependency);
+    if (response == null)
+    {
+      response = repository.resolveDirect(dependency);
+    }
+    return response.getDependencies();
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -62,12 +62,7 @@ public final class TestScopeFilter implements DependencyFilter
     }
 
     final String scope = dependency.getScope();
-    final boolean accept = !("test".equals(scope));
-    if (!accept)
-    {
-      DependencyFlagger.INSTANCE.flag(node);
-    }
-    return accept;
+    return !("test".equals(scope));
   }
 
   // --- object basics --------------------------------------------------------
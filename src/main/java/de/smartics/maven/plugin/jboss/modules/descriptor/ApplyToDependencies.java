@@ -23,6 +23,8 @@ import org.apache.commons.lang.builder.ToStringStyle;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import java.util.Collections;
 
@@ -44,6 +46,14 @@ public final class ApplyToDependencies
    */
   private final Set<DependenciesDescriptor> descriptors;
 
+  /**
+   * The merged descriptors already calculated, indexed by the module name they
+   * match. Cleared if further descriptors are merged into this instance.
+   * Transient to be excluded from the debug information.
+   */
+  private final transient ConcurrentMap<String, DependenciesDescriptor> matchingDescriptors =
+      new ConcurrentHashMap<String, DependenciesDescriptor>();
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -133,12 +143,27 @@ public final class ApplyToDependencies
 
   /**
    * Creates a merged descriptor from all descriptors that matches the given
-   * module name.
+   * module name. The merged descriptor is cached per module name until
+   * further descriptors are merged into this instance.
    *
    * @param name the name of a module to match.
    * @return the merged descriptor.
    */
   public DependenciesDescriptor getDescriptorThatMatches(final String name)
+  {
+    final DependenciesDescriptor cached = matchingDescriptors.get(name);
+    if (cached != null)
+    {
+      return cached;
+    }
+
+    final DependenciesDescriptor descriptor = calcDescriptorThatMatches(name);
+    final DependenciesDescriptor stored =
+        matchingDescriptors.putIfAbsent(name, descriptor);
+    return stored != null ? stored : descriptor;
+  }
+
+  private DependenciesDescriptor calcDescriptorThatMatches(final String name)
   {
     final DependenciesDescriptor.Builder builder =
         new DependenciesDescriptor.Builder();
@@ -166,6 +191,7 @@ public final class ApplyToDependencies
   public void merge(final ApplyToDependencies applyToDependencies)
   {
     descriptors.addAll(applyToDependencies.descriptors);
+    matchingDescriptors.clear();
   }
 
   // --- object basics --------------------------------------------------------
@@ -18,6 +18,7 @@ package de.smartics.maven.plugin.jboss.modules.descriptor;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -106,6 +107,17 @@ public class ArtifactClusion
    */
   private final String filter;
 
+  /**
+   * Whether any pattern defines capturing groups whose values are required to
+   * translate names.
+   */
+  private final boolean capturing;
+
+  /**
+   * The shared context of a successful match without capturing groups.
+   */
+  private final MatchContext matchedContext;
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -144,6 +156,9 @@ public class ArtifactClusion
       this.artifactIdPattern = null;
     }
     this.filter = filter;
+    this.capturing =
+        isCapturing(groupIdPattern) || isCapturing(artifactIdPattern);
+    this.matchedContext = new SingleMatchContext(true, this);
   }
 
   // ****************************** Inner Classes *****************************
@@ -166,6 +181,11 @@ public class ArtifactClusion
     return groupId;
   }
 
+  private static boolean isCapturing(final Pattern pattern)
+  {
+    return pattern != null && pattern.matcher("").groupCount() > 0;
+  }
+
   private static Pattern compilePattern(final String pattern)
   {
     if (StringUtils.isNotBlank(pattern))
@@ -206,6 +226,12 @@ public class ArtifactClusion
 
   /**
    * Checks if the clusion matches the artifact.
+   * <p>
+   * Failed matches return the shared {@link SingleMatchContext#NO_MATCH}
+   * context. Successful matches return a shared context of this clusion,
+   * unless a pattern with capturing groups requires to keep the match results
+   * to translate names.
+   * </p>
    *
    * @param artifact the artifact to match.
    * @return a context to access the match result, with <code>true</code> if the
@@ -214,40 +240,49 @@ public class ArtifactClusion
    */
   public MatchContext matches(final Artifact artifact)
   {
-    final SingleMatchContext matchesGroupId =
-        matches(groupIdPattern, groupId, artifact.getGroupId());
-    if (matchesGroupId != null && !matchesGroupId.isMatched())
+    if (groupId == null && artifactId == null)
     {
-      return new SingleMatchContext(false, this);
+      return SingleMatchContext.NO_MATCH;
     }
-    final SingleMatchContext matchesArtifactId =
-        matches(artifactIdPattern, artifactId, artifact.getArtifactId());
-
-    final boolean result =
-        (matchesGroupId != null && matchesGroupId.isMatched() && (matchesArtifactId == null || matchesArtifactId
-            .isMatched()))
-            || (matchesArtifactId != null && matchesArtifactId.isMatched());
-
-    final MatchContext context =
-        new DoubleMatchContext(result, matchesGroupId, matchesArtifactId, this);
-    return context;
-  }
 
-  private SingleMatchContext matches(final Pattern pattern,
-      final String id, final String inputId)
-  {
-    if (pattern != null)
+    final Matcher groupIdMatcher =
+        matcher(groupIdPattern, artifact.getGroupId());
+    if (groupIdMatcher == null
+        ? !equalsId(groupId, artifact.getGroupId())
+        : !groupIdMatcher.matches())
+    {
+      return SingleMatchContext.NO_MATCH;
+    }
+    final Matcher artifactIdMatcher =
+        matcher(artifactIdPattern, artifact.getArtifactId());
+    if (artifactIdMatcher == null
+        ? !equalsId(artifactId, artifact.getArtifactId())
+        : !artifactIdMatcher.matches())
     {
-      final Matcher matcher = pattern.matcher(inputId);
-      return new SingleMatchContext(matcher, this);
+      return SingleMatchContext.NO_MATCH;
     }
 
-    if (StringUtils.isNotBlank(id))
+    if (!capturing)
     {
-      return new SingleMatchContext(id.equals(inputId), this);
+      return matchedContext;
     }
+    return new DoubleMatchContext(toMatchResult(groupIdMatcher),
+        toMatchResult(artifactIdMatcher), this);
+  }
 
-    return null;
+  private static Matcher matcher(final Pattern pattern, final String inputId)
+  {
+    return pattern != null ? pattern.matcher(inputId) : null;
+  }
+
+  private static boolean equalsId(final String id, final String inputId)
+  {
+    return id == null || id.equals(inputId);
+  }
+
+  private static MatchResult toMatchResult(final Matcher matcher)
+  {
+    return matcher != null ? matcher.toMatchResult() : null;
   }
 
   // --- object basics --------------------------------------------------------
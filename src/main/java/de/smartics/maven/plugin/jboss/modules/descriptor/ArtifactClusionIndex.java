@@ -0,0 +1,329 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.descriptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.eclipse.aether.artifact.Artifact;
+
+/**
+ * Indexes values by the {@link ArtifactClusion} they are associated with to
+ * find the values whose clusions may match an artifact without evaluating the
+ * regular expressions of all clusions. Clusions with literal groupId and
+ * artifactId are stored by <code>groupId:artifactId</code>, clusions with a
+ * literal groupId by groupId and clusions without groupId but with a literal
+ * artifactId by artifactId. Clusions with a groupId pattern are stored in a
+ * trie by the literal prefix of the pattern. All other clusions are returned
+ * as candidates for each artifact.
+ * <p>
+ * The index only narrows down the candidates: each candidate still has to be
+ * matched against the artifact. Once built, the index may be read by
+ * concurrent threads.
+ * </p>
+ *
+ * @param <T> the type of values associated with the clusions.
+ */
+@NotThreadSafe
+public final class ArtifactClusionIndex<T>
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The characters with special meaning in a regular expression.
+   */
+  private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+  /**
+   * The quantifiers that allow the preceding character to be absent.
+   */
+  private static final String OPTIONAL_QUANTIFIERS = "?*{";
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The values of clusions with literal groupId and artifactId, indexed by
+   * <code>groupId:artifactId</code>.
+   */
+  private final Map<String, List<T>> exactGaValues =
+      new HashMap<String, List<T>>();
+
+  /**
+   * The values of clusions with a literal groupId, indexed by groupId.
+   */
+  private final Map<String, List<T>> exactGroupValues =
+      new HashMap<String, List<T>>();
+
+  /**
+   * The values of clusions without groupId but a literal artifactId, indexed by
+   * artifactId.
+   */
+  private final Map<String, List<T>> exactArtifactValues =
+      new HashMap<String, List<T>>();
+
+  /**
+   * The values of clusions with a groupId pattern, indexed by the literal
+   * prefix of the pattern.
+   */
+  private final Node<T> prefixValues = new Node<T>();
+
+  /**
+   * The values to return as candidates for every artifact.
+   */
+  private final List<T> residualValues = new ArrayList<T>();
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * A node of the trie of groupId prefixes.
+   *
+   * @param <T> the type of values associated with the clusions.
+   */
+  private static final class Node<T>
+  {
+    /**
+     * The child nodes, indexed by the next character of the prefix. May be
+     * <code>null</code>.
+     */
+    private Map<Character, Node<T>> children;
+
+    /**
+     * The values whose prefix ends at this node. May be <code>null</code>.
+     */
+    private List<T> values;
+
+    private Node<T> getOrCreateChild(final char ch)
+    {
+      if (children == null)
+      {
+        children = new HashMap<Character, Node<T>>(4);
+      }
+      Node<T> child = children.get(ch);
+      if (child == null)
+      {
+        child = new Node<T>();
+        children.put(ch, child);
+      }
+      return child;
+    }
+
+    private Node<T> getChild(final char ch)
+    {
+      return children != null ? children.get(ch) : null;
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  /**
+   * Checks if the id is matched literally. This is the case if it contains no
+   * characters with special meaning in a regular expression or if it is no
+   * valid regular expression (in which case {@link ArtifactClusion} matches by
+   * equality).
+   */
+  private static boolean isLiteral(final String id)
+  {
+    for (int i = 0; i < id.length(); i++)
+    {
+      if (META_CHARACTERS.indexOf(id.charAt(i)) >= 0)
+      {
+        try
+        {
+          Pattern.compile(id);
+          return false;
+        }
+        catch (final PatternSyntaxException e)
+        {
+          return true;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Calculates the prefix every string has to start with to be fully matched
+   * by the given pattern. Returns the empty string if there is no such prefix.
+   */
+  private static String calcLiteralPrefix(final String pattern)
+  {
+    if (pattern.indexOf('|') >= 0)
+    {
+      return "";
+    }
+
+    final StringBuilder prefix = new StringBuilder(pattern.length());
+    for (int i = 0; i < pattern.length(); i++)
+    {
+      final char ch = pattern.charAt(i);
+      if (ch == '\\')
+      {
+        if (i + 1 >= pattern.length()
+            || Character.isLetterOrDigit(pattern.charAt(i + 1)))
+        {
+          break;
+        }
+        prefix.append(pattern.charAt(++i));
+      }
+      else if (META_CHARACTERS.indexOf(ch) >= 0)
+      {
+        if (OPTIONAL_QUANTIFIERS.indexOf(ch) >= 0 && prefix.length() > 0)
+        {
+          prefix.setLength(prefix.length() - 1);
+        }
+        break;
+      }
+      else
+      {
+        prefix.append(ch);
+      }
+    }
+    return prefix.toString();
+  }
+
+  private static <T> void add(final Map<String, List<T>> index,
+      final String key, final T value)
+  {
+    List<T> values = index.get(key);
+    if (values == null)
+    {
+      values = new ArrayList<T>(2);
+      index.put(key, values);
+    }
+    values.add(value);
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Adds the value to be returned as candidate for all artifacts that may
+   * match the given clusion.
+   *
+   * @param clusion the clusion the value is associated with.
+   * @param value the value to add.
+   */
+  public void add(final ArtifactClusion clusion, final T value)
+  {
+    final String groupId = clusion.getGroupId();
+    final String artifactId = clusion.getArtifactId();
+    if (groupId == null)
+    {
+      if (artifactId == null)
+      {
+        return;
+      }
+      if (isLiteral(artifactId))
+      {
+        add(exactArtifactValues, artifactId, value);
+      }
+      else
+      {
+        residualValues.add(value);
+      }
+    }
+    else if (isLiteral(groupId))
+    {
+      if (artifactId != null && isLiteral(artifactId))
+      {
+        add(exactGaValues, groupId + ':' + artifactId, value);
+      }
+      else
+      {
+        add(exactGroupValues, groupId, value);
+      }
+    }
+    else
+    {
+      final String prefix = calcLiteralPrefix(groupId);
+      if (prefix.length() > 0)
+      {
+        Node<T> node = prefixValues;
+        for (int i = 0; i < prefix.length(); i++)
+        {
+          node = node.getOrCreateChild(prefix.charAt(i));
+        }
+        if (node.values == null)
+        {
+          node.values = new ArrayList<T>(2);
+        }
+        node.values.add(value);
+      }
+      else
+      {
+        residualValues.add(value);
+      }
+    }
+  }
+
+  /**
+   * Adds the values of all clusions that may match the given artifact to the
+   * collection of candidates. Values associated with more than one clusion may
+   * be added more than once.
+   *
+   * @param artifact the artifact to find the candidates for.
+   * @param candidates the collection to add the candidates to.
+   */
+  public void collectCandidates(final Artifact artifact,
+      final Collection<? super T> candidates)
+  {
+    final String groupId = artifact.getGroupId();
+    final String artifactId = artifact.getArtifactId();
+    addAll(exactGaValues.get(groupId + ':' + artifactId), candidates);
+    addAll(exactGroupValues.get(groupId), candidates);
+    addAll(exactArtifactValues.get(artifactId), candidates);
+
+    Node<T> node = prefixValues;
+    for (int i = 0; i < groupId.length() && node != null; i++)
+    {
+      node = node.getChild(groupId.charAt(i));
+      if (node != null)
+      {
+        addAll(node.values, candidates);
+      }
+    }
+
+    candidates.addAll(residualValues);
+  }
+
+  private static <T> void addAll(final List<T> values,
+      final Collection<? super T> candidates)
+  {
+    if (values != null)
+    {
+      candidates.addAll(values);
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -23,7 +23,6 @@ import org.apache.commons.lang.builder.ToStringStyle;
 import org.eclipse.aether.artifact.Artifact;
 
 import de.smartics.maven.plugin.jboss.modules.domain.MatchContext;
-import de.smartics.maven.plugin.jboss.modules.domain.matching.DelegationMatchContext;
 import de.smartics.maven.plugin.jboss.modules.domain.matching.SingleMatchContext;
 import de.smartics.maven.plugin.jboss.modules.util.Arg;
 
@@ -37,6 +36,12 @@ public final class ArtifactMatcher
 
   // --- constants ------------------------------------------------------------
 
+  /**
+   * The minimum number of clusions to combine into a single pattern. Shorter
+   * lists are matched one by one.
+   */
+  private static final int MIN_COMBINED_CLUSIONS = 3;
+
   // --- members --------------------------------------------------------------
 
   /**
@@ -49,6 +54,20 @@ public final class ArtifactMatcher
    */
   private final List<ArtifactClusion> excludes;
 
+  /**
+   * The inclusions combined into a single pattern. May be <code>null</code>, if
+   * the inclusions are matched one by one. Transient to be excluded from the
+   * debug information.
+   */
+  private final transient CombinedClusionPattern combinedIncludes;
+
+  /**
+   * The exclusions combined into a single pattern. May be <code>null</code>, if
+   * the exclusions are matched one by one. Transient to be excluded from the
+   * debug information.
+   */
+  private final transient CombinedClusionPattern combinedExcludes;
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -57,6 +76,8 @@ public final class ArtifactMatcher
   {
     includes = builder.includes;
     excludes = builder.excludes;
+    combinedIncludes = combine(includes);
+    combinedExcludes = combine(excludes);
   }
 
   // ****************************** Inner Classes *****************************
@@ -135,6 +156,13 @@ public final class ArtifactMatcher
 
   // --- init -----------------------------------------------------------------
 
+  private static CombinedClusionPattern combine(
+      final List<ArtifactClusion> clusions)
+  {
+    return clusions.size() >= MIN_COMBINED_CLUSIONS
+        ? new CombinedClusionPattern(clusions) : null;
+  }
+
   // --- get&set --------------------------------------------------------------
 
   /**
@@ -168,19 +196,14 @@ public final class ArtifactMatcher
    */
   public MatchContext match(final Artifact artifact)
   {
-    final MatchContext includesContext = cludes(includes, artifact);
-    final MatchContext excludesContext = cludes(excludes, artifact);
-
-    final boolean result =
-        (includesContext.isMatched() && !excludesContext.isMatched());
-    if (includesContext.isMatched())
+    final MatchContext includesContext =
+        cludes(includes, combinedIncludes, artifact);
+    if (includesContext.isMatched()
+        && !cludes(excludes, combinedExcludes, artifact).isMatched())
     {
-      return new DelegationMatchContext(result, includesContext);
-    }
-    else
-    {
-      return new SingleMatchContext(result, null);
+      return includesContext;
     }
+    return SingleMatchContext.NO_MATCH;
   }
 
   /**
@@ -200,9 +223,13 @@ public final class ArtifactMatcher
     return null;
   }
 
-  private MatchContext cludes(final List<ArtifactClusion> clusions,
-      final Artifact artifact)
+  private static MatchContext cludes(final List<ArtifactClusion> clusions,
+      final CombinedClusionPattern combined, final Artifact artifact)
   {
+    if (combined != null)
+    {
+      return combined.matches(artifact);
+    }
     if (clusions != null)
     {
       for (final ArtifactClusion clusion : clusions)
@@ -214,7 +241,7 @@ public final class ArtifactMatcher
         }
       }
     }
-    return new SingleMatchContext(false, null);
+    return SingleMatchContext.NO_MATCH;
   }
 
   // --- object basics --------------------------------------------------------
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.descriptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.eclipse.aether.artifact.Artifact;
+
+import de.smartics.maven.plugin.jboss.modules.domain.MatchContext;
+import de.smartics.maven.plugin.jboss.modules.domain.matching.SingleMatchContext;
+
+/**
+ * Matches an artifact against a list of {@link ArtifactClusion}s with a single
+ * regular expression. The expression is a tagged alternation over
+ * <code>groupId:artifactId</code> with one capturing group per clusion, so that
+ * one scan of the input reports the first clusion in list order that matches.
+ * <p>
+ * Clusions whose patterns cannot be combined without changing their meaning
+ * (e.g. because of anchors, back references, lookarounds or inline flags) are
+ * matched one by one as before. The result is always the same as matching the
+ * clusions in list order and returning the first match.
+ * </p>
+ */
+@ThreadSafe
+final class CombinedClusionPattern
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The separator of groupId and artifactId in the input of the combined
+   * pattern. Since it is never part of a valid id, each id pattern is confined
+   * to its id.
+   */
+  private static final char SEPARATOR = ':';
+
+  /**
+   * The expression to match any id if a clusion does not specify the id.
+   */
+  private static final String ANY_ID = "[^:]*";
+
+  /**
+   * The characters following <code>(?</code> that open a group without
+   * changing flags, introducing a name or looking around. Lookarounds are not
+   * combinable since they would see the separator of groupId and artifactId.
+   */
+  private static final String PLAIN_GROUP_TYPES = ":>";
+
+  /**
+   * The characters following a backslash that refer to a group or a boundary
+   * of the input.
+   */
+  private static final String CONTEXT_ESCAPES = "123456789kAzZG";
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The clusions to match, in list order.
+   */
+  private final List<ArtifactClusion> clusions;
+
+  /**
+   * The combined pattern. May be <code>null</code>, if no clusion could be
+   * combined.
+   */
+  private final Pattern pattern;
+
+  /**
+   * The number of the group tagging each alternative of the combined pattern.
+   */
+  private final int[] tagGroups;
+
+  /**
+   * The index of the clusion of each alternative of the combined pattern.
+   */
+  private final int[] tagClusions;
+
+  /**
+   * The indices of the clusions to match one by one, in ascending order.
+   */
+  private final int[] residualClusions;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @param clusions the clusions to match. The list must not be modified
+   *          afterwards.
+   */
+  CombinedClusionPattern(final List<ArtifactClusion> clusions)
+  {
+    this.clusions = clusions;
+
+    final StringBuilder buffer = new StringBuilder(clusions.size() * 32);
+    final List<Integer> groups = new ArrayList<Integer>(clusions.size());
+    final List<Integer> combined = new ArrayList<Integer>(clusions.size());
+    final List<Integer> residual = new ArrayList<Integer>();
+    int nextGroup = 1;
+    for (int i = 0; i < clusions.size(); i++)
+    {
+      final ArtifactClusion clusion = clusions.get(i);
+      if (clusion.getGroupId() == null && clusion.getArtifactId() == null)
+      {
+        continue;
+      }
+      final String groupIdExpression = toExpression(clusion.getGroupId());
+      final String artifactIdExpression =
+          toExpression(clusion.getArtifactId());
+      if (groupIdExpression == null || artifactIdExpression == null)
+      {
+        residual.add(i);
+        continue;
+      }
+
+      if (buffer.length() > 0)
+      {
+        buffer.append('|');
+      }
+      buffer.append("((?:").append(groupIdExpression).append(')')
+          .append(SEPARATOR).append("(?:").append(artifactIdExpression)
+          .append("))");
+      groups.add(nextGroup);
+      combined.add(i);
+      nextGroup +=
+          1 + countGroups(groupIdExpression) + countGroups(artifactIdExpression);
+    }
+
+    Pattern pattern = null;
+    if (!combined.isEmpty())
+    {
+      try
+      {
+        pattern = Pattern.compile(buffer.toString());
+      }
+      catch (final PatternSyntaxException e)
+      {
+        residual.addAll(combined);
+        Collections.sort(residual);
+        groups.clear();
+        combined.clear();
+      }
+    }
+    this.pattern = pattern;
+    this.tagGroups = toArray(groups);
+    this.tagClusions = toArray(combined);
+    this.residualClusions = toArray(residual);
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  /**
+   * Returns the expression to embed into the combined pattern for the given id
+   * of a clusion, or <code>null</code> if the id cannot be combined.
+   */
+  private static String toExpression(final String id)
+  {
+    if (id == null)
+    {
+      return ANY_ID;
+    }
+    try
+    {
+      Pattern.compile(id);
+    }
+    catch (final PatternSyntaxException e)
+    {
+      return Pattern.quote(id);
+    }
+    return isCombinable(id) ? id : null;
+  }
+
+  /**
+   * Checks if the expression matches the same ids if embedded in the combined
+   * pattern. This is not the case for anchors and boundaries of the input, back
+   * references, named groups, lookarounds and inline flags, since their meaning
+   * depends on the rest of the pattern.
+   */
+  private static boolean isCombinable(final String expression)
+  {
+    int classDepth = 0;
+    final int length = expression.length();
+    for (int i = 0; i < length; i++)
+    {
+      final char ch = expression.charAt(i);
+      if (ch == '\\')
+      {
+        if (++i >= length)
+        {
+          return false;
+        }
+        final char escaped = expression.charAt(i);
+        if (escaped == 'Q')
+        {
+          final int end = expression.indexOf("\\E", i + 1);
+          if (end < 0)
+          {
+            return false;
+          }
+          i = end + 1;
+        }
+        else if (classDepth == 0 && CONTEXT_ESCAPES.indexOf(escaped) >= 0)
+        {
+          return false;
+        }
+      }
+      else if (ch == '[')
+      {
+        if (expression.startsWith("]", i + 1)
+            || expression.startsWith("^]", i + 1))
+        {
+          return false;
+        }
+        classDepth++;
+      }
+      else if (classDepth > 0)
+      {
+        if (ch == ']')
+        {
+          classDepth--;
+        }
+      }
+      else if (ch == '^' || ch == '$')
+      {
+        return false;
+      }
+      else if (ch == '(' && expression.startsWith("?", i + 1)
+               && (i + 2 >= length || PLAIN_GROUP_TYPES.indexOf(expression
+                   .charAt(i + 2)) < 0))
+      {
+        return false;
+      }
+    }
+    return classDepth == 0;
+  }
+
+  private static int countGroups(final String expression)
+  {
+    return Pattern.compile(expression).matcher("").groupCount();
+  }
+
+  private static int[] toArray(final List<Integer> values)
+  {
+    final int[] array = new int[values.size()];
+    for (int i = 0; i < array.length; i++)
+    {
+      array[i] = values.get(i);
+    }
+    return array;
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Matches the artifact against the clusions and returns the context of the
+   * first clusion in list order that matches.
+   *
+   * @param artifact the artifact to match.
+   * @return the context of the first matching clusion or
+   *         {@link SingleMatchContext#NO_MATCH}.
+   */
+  MatchContext matches(final Artifact artifact)
+  {
+    final String groupId = artifact.getGroupId();
+    final String artifactId = artifact.getArtifactId();
+    if (groupId.indexOf(SEPARATOR) >= 0 || artifactId.indexOf(SEPARATOR) >= 0)
+    {
+      return matchesOneByOne(artifact);
+    }
+
+    final int first = findFirstCombined(groupId + SEPARATOR + artifactId);
+    for (final int index : residualClusions)
+    {
+      if (first >= 0 && index > first)
+      {
+        break;
+      }
+      final MatchContext context = clusions.get(index).matches(artifact);
+      if (context.isMatched())
+      {
+        return context;
+      }
+    }
+
+    if (first >= 0)
+    {
+      final MatchContext context = clusions.get(first).matches(artifact);
+      return context.isMatched() ? context : matchesOneByOne(artifact);
+    }
+    return SingleMatchContext.NO_MATCH;
+  }
+
+  private int findFirstCombined(final String input)
+  {
+    if (pattern != null)
+    {
+      final Matcher matcher = pattern.matcher(input);
+      if (matcher.matches())
+      {
+        for (int i = 0; i < tagGroups.length; i++)
+        {
+          if (matcher.start(tagGroups[i]) >= 0)
+          {
+            return tagClusions[i];
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+  private MatchContext matchesOneByOne(final Artifact artifact)
+  {
+    for (final ArtifactClusion clusion : clusions)
+    {
+      final MatchContext context = clusion.matches(artifact);
+      if (context.isMatched())
+      {
+        return context;
+      }
+    }
+    return SingleMatchContext.NO_MATCH;
+  }
+
+  // --- object basics --------------------------------------------------------
+
+  /**
+   * Returns the combined pattern for debugging purposes.
+   *
+   * @return the combined pattern.
+   */
+  @Override
+  public String toString()
+  {
+    return String.valueOf(pattern);
+  }
+}
@@ -32,6 +32,12 @@ public final class ModuleClusion
 
   // --- constants ------------------------------------------------------------
 
+  /**
+   * The characters with special meaning in a regular expression, except the
+   * dot, which matches itself, too.
+   */
+  private static final String META_CHARACTERS = "\\^$|?*+()[]{}";
+
   // --- members --------------------------------------------------------------
 
   /**
@@ -95,6 +101,35 @@ public final class ModuleClusion
     return name;
   }
 
+  /**
+   * Checks if the clusion matches a module name equal to the name of the
+   * clusion. This is the case if the name contains no characters with special
+   * meaning in a regular expression other than the dot, or if the name is no
+   * valid regular expression and therefore matched by equality.
+   *
+   * @return <code>true</code> if the clusion matches its own name,
+   *         <code>false</code> otherwise.
+   */
+  boolean isLiteral()
+  {
+    if (name == null)
+    {
+      return false;
+    }
+    if (namePattern == null)
+    {
+      return true;
+    }
+    for (int i = 0; i < name.length(); i++)
+    {
+      if (META_CHARACTERS.indexOf(name.charAt(i)) >= 0)
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
   // --- business -------------------------------------------------------------
 
   /**
@@ -16,7 +16,9 @@
 package de.smartics.maven.plugin.jboss.modules.descriptor;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 
@@ -45,6 +47,20 @@ public final class ModuleMatcher
    */
   private final List<ModuleClusion> excludes;
 
+  /**
+   * The names of the inclusions that match themselves. Module names found in
+   * this set are included without evaluating regular expressions. Transient to
+   * be excluded from the debug information.
+   */
+  private final transient Set<String> literalIncludes;
+
+  /**
+   * The names of the exclusions that match themselves. Module names found in
+   * this set are excluded without evaluating regular expressions. Transient to
+   * be excluded from the debug information.
+   */
+  private final transient Set<String> literalExcludes;
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -53,6 +69,8 @@ public final class ModuleMatcher
   {
     includes = builder.includes;
     excludes = builder.excludes;
+    literalIncludes = collectLiteralNames(includes);
+    literalExcludes = collectLiteralNames(excludes);
   }
 
   // ****************************** Inner Classes *****************************
@@ -133,6 +151,20 @@ public final class ModuleMatcher
 
   // --- init -----------------------------------------------------------------
 
+  private static Set<String> collectLiteralNames(
+      final List<ModuleClusion> clusions)
+  {
+    final Set<String> names = new HashSet<String>();
+    for (final ModuleClusion clusion : clusions)
+    {
+      if (clusion.isLiteral())
+      {
+        names.add(clusion.getName());
+      }
+    }
+    return names;
+  }
+
   // --- get&set --------------------------------------------------------------
 
   /**
@@ -165,23 +197,29 @@ public final class ModuleMatcher
    */
   public boolean matches(final String name)
   {
-    final boolean included = matches(includes, name, true);
+    final boolean included = matches(includes, literalIncludes, name, true);
     if (included)
     {
-      final boolean excluded = matches(excludes, name, false);
+      final boolean excluded =
+          matches(excludes, literalExcludes, name, false);
       return !excluded;
     }
 
     return included;
   }
 
-  private boolean matches(final List<ModuleClusion> cludes, final String name,
+  private static boolean matches(final List<ModuleClusion> cludes,
+      final Set<String> literalNames, final String name,
       final boolean defaultValue)
   {
     if (cludes.isEmpty())
     {
       return defaultValue;
     }
+    if (literalNames.contains(name))
+    {
+      return true;
+    }
     for (final ModuleClusion clusion : cludes)
     {
       if (clusion.match(name))
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.domain;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.eclipse.aether.artifact.Artifact;
+
+/**
+ * Identifies an artifact by its coordinates. Keys are immutable and compute
+ * their hash code once. Keys interned by a {@link Pool} are unique per
+ * coordinates and share the strings of their coordinates with all other keys
+ * of the pool.
+ */
+@ThreadSafe
+public final class ArtifactKey
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The groupId of the artifact.
+   */
+  private final String groupId;
+
+  /**
+   * The artifactId of the artifact.
+   */
+  private final String artifactId;
+
+  /**
+   * The version of the artifact.
+   */
+  private final String version;
+
+  /**
+   * The extension of the artifact.
+   */
+  private final String extension;
+
+  /**
+   * The classifier of the artifact.
+   */
+  private final String classifier;
+
+  /**
+   * The precomputed hash code.
+   */
+  private final int hashCode;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private ArtifactKey(final String groupId, final String artifactId,
+      final String version, final String extension, final String classifier)
+  {
+    this.groupId = groupId;
+    this.artifactId = artifactId;
+    this.version = version;
+    this.extension = extension;
+    this.classifier = classifier;
+
+    int result = 17;
+    result = 37 * result + groupId.hashCode();
+    result = 37 * result + artifactId.hashCode();
+    result = 37 * result + version.hashCode();
+    result = 37 * result + extension.hashCode();
+    result = 37 * result + classifier.hashCode();
+    this.hashCode = result;
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Interns the keys of artifacts. A pool is meant to be shared by all
+   * components of an execution that index artifacts.
+   * <p>
+   * A pool is not bounded: it retains every interned key as long as the pool
+   * is referenced. Components that evict their entries should therefore not
+   * intern the keys of these entries.
+   * </p>
+   */
+  @ThreadSafe
+  public static final class Pool
+  {
+    // ******************************** Fields ********************************
+
+    // --- constants ----------------------------------------------------------
+
+    // --- members ------------------------------------------------------------
+
+    /**
+     * The interned keys.
+     */
+    private final ConcurrentMap<ArtifactKey, ArtifactKey> keys =
+        new ConcurrentHashMap<ArtifactKey, ArtifactKey>();
+
+    /**
+     * The strings of the coordinates of the interned keys.
+     */
+    private final ConcurrentMap<String, String> strings =
+        new ConcurrentHashMap<String, String>();
+
+    // ***************************** Initializer ******************************
+
+    // ***************************** Constructors *****************************
+
+    // ***************************** Inner Classes ****************************
+
+    // ******************************** Methods *******************************
+
+    // --- init ---------------------------------------------------------------
+
+    // --- get&set ------------------------------------------------------------
+
+    /**
+     * Returns the number of interned keys.
+     *
+     * @return the number of interned keys.
+     */
+    public int size()
+    {
+      return keys.size();
+    }
+
+    // --- business -----------------------------------------------------------
+
+    /**
+     * Returns the unique key for the coordinates of the given artifact.
+     *
+     * @param artifact the artifact to return the key for.
+     * @return the interned key.
+     */
+    public ArtifactKey intern(final Artifact artifact)
+    {
+      final ArtifactKey key = of(artifact);
+      final ArtifactKey interned = keys.get(key);
+      if (interned != null)
+      {
+        return interned;
+      }
+
+      final ArtifactKey canonical =
+          new ArtifactKey(intern(key.groupId), intern(key.artifactId),
+              intern(key.version), intern(key.extension),
+              intern(key.classifier));
+      final ArtifactKey stored = keys.putIfAbsent(canonical, canonical);
+      return stored != null ? stored : canonical;
+    }
+
+    /**
+     * Returns the interned key for the coordinates of the given artifact
+     * without interning a new key.
+     *
+     * @param artifact the artifact to return the key for.
+     * @return the interned key or <code>null</code> if no key has been
+     *         interned for the coordinates of the artifact.
+     */
+    public ArtifactKey find(final Artifact artifact)
+    {
+      return keys.get(of(artifact));
+    }
+
+    private String intern(final String string)
+    {
+      final String stored = strings.putIfAbsent(string, string);
+      return stored != null ? stored : string;
+    }
+
+    // --- object basics ------------------------------------------------------
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- factory --------------------------------------------------------------
+
+  /**
+   * Creates a key for the coordinates of the given artifact without interning
+   * it.
+   *
+   * @param artifact the artifact to create the key for.
+   * @return the key.
+   */
+  public static ArtifactKey of(final Artifact artifact)
+  {
+    return new ArtifactKey(artifact.getGroupId(), artifact.getArtifactId(),
+        artifact.getVersion(), artifact.getExtension(),
+        artifact.getClassifier());
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  // --- object basics --------------------------------------------------------
+
+  @Override
+  public int hashCode()
+  {
+    return hashCode;
+  }
+
+  @Override
+  public boolean equals(final Object object)
+  {
+    if (this == object)
+    {
+      return true;
+    }
+    else if (object == null || getClass() != object.getClass())
+    {
+      return false;
+    }
+
+    final ArtifactKey other = (ArtifactKey) object;
+
+    return hashCode == other.hashCode && artifactId.equals(other.artifactId)
+           && groupId.equals(other.groupId) && version.equals(other.version)
+           && extension.equals(other.extension)
+           && classifier.equals(other.classifier);
+  }
+
+  @Override
+  public String toString()
+  {
+    return groupId + ':' + artifactId + ':' + extension + ':' + classifier
+           + ':' + version;
+  }
+}
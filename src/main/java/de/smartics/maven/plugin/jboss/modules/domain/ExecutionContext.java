@@ -26,6 +26,7 @@ import org.jdom2.Namespace;
 import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
 import de.smartics.maven.plugin.jboss.modules.util.Arg;
 import de.smartics.maven.plugin.jboss.modules.xml.ModuleXmlBuilder;
+import de.smartics.maven.plugin.jboss.modules.xml.XmlFragmentTemplates;
 import java.util.Collections;
 
 /**
@@ -81,6 +82,34 @@ public final class ExecutionContext
 
   private final Namespace targetNamespace;
 
+  /**
+   * Whether to write module descriptors without building them in memory.
+   */
+  private final boolean streamModuleXml;
+
+  /**
+   * The fingerprints of the modules to skip unchanged modules. May be
+   * <code>null</code> if all modules are to be created.
+   */
+  private final ModuleFingerprints fingerprints;
+
+  /**
+   * The strategy to stage the resources of modules in the target folder.
+   */
+  private final ResourceStaging resourceStaging;
+
+  /**
+   * The archive to write the modules to instead of the target folder. May be
+   * <code>null</code> if modules are staged in the target folder.
+   */
+  private final ModuleArchive moduleArchive;
+
+  /**
+   * The parsed XML fragments to add to module descriptors.
+   */
+  private final XmlFragmentTemplates fragmentTemplates =
+      new XmlFragmentTemplates();
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -96,6 +125,10 @@ public final class ExecutionContext
     this.ignoreOptionalDependencies = builder.ignoreOptionalDependencies;
     this.generateFeaturePackDefinition = builder.generateFeaturePackDefinition;
     this.targetNamespace = builder.targetNamespace;
+    this.streamModuleXml = builder.streamModuleXml;
+    this.fingerprints = builder.fingerprints;
+    this.resourceStaging = builder.resourceStaging;
+    this.moduleArchive = builder.moduleArchive;
   }
 
   // ****************************** Inner Classes *****************************
@@ -153,6 +186,26 @@ public final class ExecutionContext
 
     private Namespace targetNamespace = ModuleXmlBuilder.MODULE_NS_1_1;
 
+    /**
+     * Whether to write module descriptors without building them in memory.
+     */
+    private boolean streamModuleXml;
+
+    /**
+     * The fingerprints of the modules to skip unchanged modules.
+     */
+    private ModuleFingerprints fingerprints;
+
+    /**
+     * The strategy to stage the resources of modules in the target folder.
+     */
+    private ResourceStaging resourceStaging = ResourceStaging.COPY;
+
+    /**
+     * The archive to write the modules to instead of the target folder.
+     */
+    private ModuleArchive moduleArchive;
+
     // ***************************** Initializer ******************************
 
     // ***************************** Constructors *****************************
@@ -287,6 +340,62 @@ public final class ExecutionContext
       return this;
     }
 
+    /**
+     * Sets whether to write module descriptors without building them in
+     * memory.
+     *
+     * @param streamModuleXml whether to write module descriptors without
+     *          building them in memory.
+     * @return a reference to this builder.
+     */
+    public Builder withStreamModuleXml(final boolean streamModuleXml)
+    {
+      this.streamModuleXml = streamModuleXml;
+      return this;
+    }
+
+    /**
+     * Sets the fingerprints of the modules to skip unchanged modules.
+     *
+     * @param fingerprints the fingerprints of the modules to skip unchanged
+     *          modules. May be <code>null</code> if all modules are to be
+     *          created.
+     * @return a reference to this builder.
+     */
+    public Builder with(final ModuleFingerprints fingerprints)
+    {
+      this.fingerprints = fingerprints;
+      return this;
+    }
+
+    /**
+     * Sets the strategy to stage the resources of modules in the target
+     * folder. Defaults to {@link ResourceStaging#COPY}.
+     *
+     * @param resourceStaging the strategy to stage the resources of modules
+     *          in the target folder.
+     * @return a reference to this builder.
+     */
+    public Builder with(final ResourceStaging resourceStaging)
+    {
+      this.resourceStaging = resourceStaging;
+      return this;
+    }
+
+    /**
+     * Sets the archive to write the modules to instead of the target folder.
+     *
+     * @param moduleArchive the archive to write the modules to. May be
+     *          <code>null</code> if modules are to be staged in the target
+     *          folder.
+     * @return a reference to this builder.
+     */
+    public Builder with(final ModuleArchive moduleArchive)
+    {
+      this.moduleArchive = moduleArchive;
+      return this;
+    }
+
     // --- business -----------------------------------------------------------
 
     /**
@@ -302,6 +411,7 @@ public final class ExecutionContext
       Arg.checkNotNull("resolver", resolver);
       Arg.checkNotNull("slotStrategy", slotStrategy);
       Arg.checkNotNull("moduleMap", moduleMap);
+      Arg.checkNotNull("resourceStaging", resourceStaging);
 
       return new ExecutionContext(this);
     }
@@ -445,6 +555,62 @@ public final class ExecutionContext
     return targetNamespace;
   }
 
+  /**
+   * Returns whether to write module descriptors without building them in
+   * memory.
+   *
+   * @return <code>true</code> if module descriptors are written without
+   *         building them in memory, <code>false</code> otherwise.
+   */
+  public boolean isStreamModuleXml()
+  {
+    return streamModuleXml;
+  }
+
+  /**
+   * Returns the fingerprints of the modules to skip unchanged modules.
+   *
+   * @return the fingerprints of the modules to skip unchanged modules. May be
+   *         <code>null</code> if all modules are to be created.
+   */
+  public ModuleFingerprints getFingerprints()
+  {
+    return fingerprints;
+  }
+
+  /**
+   * Returns the strategy to stage the resources of modules in the target
+   * folder.
+   *
+   * @return the strategy to stage the resources of modules in the target
+   *         folder.
+   */
+  public ResourceStaging getResourceStaging()
+  {
+    return resourceStaging;
+  }
+
+  /**
+   * Returns the archive to write the modules to instead of the target folder.
+   *
+   * @return the archive to write the modules to. May be <code>null</code> if
+   *         modules are staged in the target folder.
+   */
+  public ModuleArchive getModuleArchive()
+  {
+    return moduleArchive;
+  }
+
+  /**
+   * Returns the parsed XML fragments to add to module descriptors.
+   *
+   * @return the parsed XML fragments to add to module descriptors.
+   */
+  public XmlFragmentTemplates getFragmentTemplates()
+  {
+    return fragmentTemplates;
+  }
+
   // --- object basics --------------------------------------------------------
 
 }
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.domain;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.commons.io.IOUtils;
+
+import de.smartics.maven.plugin.jboss.modules.util.Arg;
+
+/**
+ * Writes the files of modules to a jar file on the fly. Entries are written in
+ * the order they are added. Resources that are jar files are already
+ * compressed and are therefore stored instead of being deflated again, unless
+ * configured otherwise.
+ * <p>
+ * Entries not backed by a file, such as the manifest, directories and
+ * generated module descriptors, are written with a fixed time so that
+ * unchanged modules result in the same archive.
+ * </p>
+ */
+@ThreadSafe
+public final class JarModuleArchive implements ModuleArchive
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The size of the buffer to read files with.
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The time of entries not backed by a file, if not configured otherwise:
+   * <code>2000-01-01T00:00:00Z</code>.
+   */
+  public static final long DEFAULT_ENTRY_TIME = 946684800000L;
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The stream to write the entries to.
+   */
+  private final JarOutputStream out;
+
+  /**
+   * The time of entries not backed by a file.
+   */
+  private final long entryTime;
+
+  /**
+   * Whether to store resources that are jar files instead of deflating them.
+   */
+  private final boolean storeJars;
+
+  /**
+   * The directory entries already written.
+   */
+  private final Set<String> directories = new HashSet<String>();
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor. Deflates entries with the default level and stores
+   * resources that are jar files.
+   *
+   * @param file the jar file to write.
+   * @param manifest the manifest to write as first entry.
+   * @throws NullPointerException if {@code file} or {@code manifest} is
+   *           <code>null</code>.
+   * @throws IOException on any problem creating the jar file.
+   */
+  public JarModuleArchive(final File file, final Manifest manifest)
+    throws NullPointerException, IOException
+  {
+    this(file, manifest, Deflater.DEFAULT_COMPRESSION, true);
+  }
+
+  /**
+   * Convenience constructor. Writes entries not backed by a file with the
+   * {@link #DEFAULT_ENTRY_TIME}.
+   *
+   * @param file the jar file to write.
+   * @param manifest the manifest to write as first entry.
+   * @param compressionLevel the level to deflate entries with, from
+   *          {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}
+   *          or {@link Deflater#DEFAULT_COMPRESSION}.
+   * @param storeJars whether to store resources that are jar files instead of
+   *          deflating them.
+   * @throws NullPointerException if {@code file} or {@code manifest} is
+   *           <code>null</code>.
+   * @throws IllegalArgumentException if {@code compressionLevel} is not a
+   *           valid level.
+   * @throws IOException on any problem creating the jar file.
+   */
+  public JarModuleArchive(final File file, final Manifest manifest,
+      final int compressionLevel, final boolean storeJars)
+    throws NullPointerException, IllegalArgumentException, IOException
+  {
+    this(file, manifest, compressionLevel, storeJars, DEFAULT_ENTRY_TIME);
+  }
+
+  /**
+   * Convenience constructor.
+   *
+   * @param file the jar file to write.
+   * @param manifest the manifest to write as first entry.
+   * @param compressionLevel the level to deflate entries with, from
+   *          {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}
+   *          or {@link Deflater#DEFAULT_COMPRESSION}.
+   * @param storeJars whether to store resources that are jar files instead of
+   *          deflating them.
+   * @param entryTime the time in milliseconds since the epoch to write entries
+   *          not backed by a file with.
+   * @throws NullPointerException if {@code file} or {@code manifest} is
+   *           <code>null</code>.
+   * @throws IllegalArgumentException if {@code compressionLevel} is not a
+   *           valid level.
+   * @throws IOException on any problem creating the jar file.
+   */
+  public JarModuleArchive(final File file, final Manifest manifest,
+      final int compressionLevel, final boolean storeJars, final long entryTime)
+    throws NullPointerException, IllegalArgumentException, IOException
+  {
+    Arg.checkNotNull("file", file);
+    Arg.checkNotNull("manifest", manifest);
+    checkLevel(compressionLevel);
+    this.storeJars = storeJars;
+    this.entryTime = entryTime;
+
+    final OutputStream fileOut = openFile(file);
+    try
+    {
+      this.out = new JarOutputStream(fileOut);
+      this.out.setLevel(compressionLevel);
+      writeManifest(manifest);
+    }
+    catch (final IOException e)
+    {
+      IOUtils.closeQuietly(fileOut);
+      throw e;
+    }
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  /**
+   * Checks that the compression level is valid.
+   *
+   * @param compressionLevel the level to check.
+   * @return the valid level.
+   * @throws IllegalArgumentException if {@code compressionLevel} is not a
+   *           valid level.
+   */
+  static int checkLevel(final int compressionLevel)
+    throws IllegalArgumentException
+  {
+    if ((compressionLevel < Deflater.NO_COMPRESSION
+         || compressionLevel > Deflater.BEST_COMPRESSION)
+        && compressionLevel != Deflater.DEFAULT_COMPRESSION)
+    {
+      throw new IllegalArgumentException("Invalid compression level "
+                                         + compressionLevel + '.');
+    }
+    return compressionLevel;
+  }
+
+  /**
+   * Opens a buffered stream to the given file, creating its parent folder if
+   * required.
+   *
+   * @param file the file to write.
+   * @return the stream to write to.
+   * @throws IOException on any problem creating the file.
+   */
+  static OutputStream openFile(final File file) throws IOException
+  {
+    final File parent = file.getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+    {
+      throw new IOException(String.format("Cannot create folder '%s'.",
+          parent.getAbsolutePath()));
+    }
+    return new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+  }
+
+  private void writeManifest(final Manifest manifest) throws IOException
+  {
+    final JarEntry entry = new JarEntry(JarFile.MANIFEST_NAME);
+    entry.setTime(entryTime);
+    out.putNextEntry(entry);
+    manifest.write(out);
+    out.closeEntry();
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Checks if the entry is a jar file.
+   *
+   * @param name the name of the entry.
+   * @return <code>true</code> if the entry is a jar file, <code>false</code>
+   *         otherwise.
+   */
+  static boolean isJar(final String name)
+  {
+    return name.regionMatches(true, name.length() - 4, ".jar", 0, 4);
+  }
+
+  @Override
+  public synchronized void add(final String name, final byte[] content)
+    throws IOException
+  {
+    addDirectories(name);
+    final JarEntry entry = new JarEntry(name);
+    entry.setTime(entryTime);
+    out.putNextEntry(entry);
+    out.write(content);
+    out.closeEntry();
+  }
+
+  @Override
+  public synchronized void add(final String name, final File file)
+    throws IOException
+  {
+    addDirectories(name);
+    final JarEntry entry = new JarEntry(name);
+    entry.setTime(file.lastModified());
+    if (storeJars && isJar(name))
+    {
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(file.length());
+      entry.setCompressedSize(file.length());
+      entry.setCrc(calcCrc(file));
+    }
+    out.putNextEntry(entry);
+    InputStream in = null;
+    try
+    {
+      in = new FileInputStream(file);
+      IOUtils.copyLarge(in, out, new byte[BUFFER_SIZE]);
+    }
+    finally
+    {
+      IOUtils.closeQuietly(in);
+    }
+    out.closeEntry();
+  }
+
+  private void addDirectories(final String name) throws IOException
+  {
+    for (int index = name.indexOf('/'); index >= 0; index =
+        name.indexOf('/', index + 1))
+    {
+      final String directory = name.substring(0, index + 1);
+      if (directories.add(directory))
+      {
+        final JarEntry entry = new JarEntry(directory);
+        entry.setTime(entryTime);
+        out.putNextEntry(entry);
+        out.closeEntry();
+      }
+    }
+  }
+
+  /**
+   * Calculates the checksum of the contents of a file.
+   *
+   * @param file the file to read.
+   * @return the checksum of the file.
+   * @throws IOException on any problem reading the file.
+   */
+  static long calcCrc(final File file) throws IOException
+  {
+    final CRC32 crc = new CRC32();
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    InputStream in = null;
+    try
+    {
+      in = new FileInputStream(file);
+      for (int count = in.read(buffer); count >= 0; count = in.read(buffer))
+      {
+        crc.update(buffer, 0, count);
+      }
+    }
+    finally
+    {
+      IOUtils.closeQuietly(in);
+    }
+    return crc.getValue();
+  }
+
+  @Override
+  public synchronized void close() throws IOException
+  {
+    out.close();
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
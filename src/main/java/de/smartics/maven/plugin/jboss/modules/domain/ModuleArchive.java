@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.domain;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * An archive the files of modules are written to directly, without staging
+ * them in the target folder first. Implementations have to be safe to be used
+ * by concurrent threads.
+ */
+public interface ModuleArchive extends Closeable
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Adds an entry with the given content.
+   *
+   * @param name the name of the entry, using <code>/</code> as separator.
+   * @param content the content of the entry.
+   * @throws IOException on any problem writing the entry.
+   */
+  void add(String name, byte[] content) throws IOException;
+
+  /**
+   * Adds an entry with the contents of the given file.
+   *
+   * @param name the name of the entry, using <code>/</code> as separator.
+   * @param file the file whose contents to add.
+   * @throws IOException on any problem reading the file or writing the entry.
+   */
+  void add(String name, File file) throws IOException;
+
+  // --- object basics --------------------------------------------------------
+
+}
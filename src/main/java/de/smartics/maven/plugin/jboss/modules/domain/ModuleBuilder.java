@@ -16,6 +16,7 @@
 package de.smartics.maven.plugin.jboss.modules.domain;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -23,6 +24,8 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -88,6 +91,30 @@ public final class ModuleBuilder
 
   // --- get&set --------------------------------------------------------------
 
+  /**
+   * Checks if the module is skipped and therefore not created.
+   *
+   * @return <code>true</code> if the module is skipped, <code>false</code>
+   *         otherwise.
+   */
+  public boolean isSkipped()
+  {
+    return module.getDirectives().getSkip();
+  }
+
+  /**
+   * Returns the folder of the module within the target folder.
+   *
+   * @return the folder of the module.
+   */
+  public File getModuleFolder()
+  {
+    final String path = module.getName().replace('.', '/');
+
+    final File folder = new File(context.getTargetFolder(), path);
+    return new File(folder, calcSlot());
+  }
+
   // --- business -------------------------------------------------------------
 
   /**
@@ -99,7 +126,21 @@ public final class ModuleBuilder
   {
     if (!module.getDirectives().getSkip())
     {
+      final ModuleArchive archive = context.getModuleArchive();
+      if (archive != null)
+      {
+        addToArchive(archive);
+        return;
+      }
+
       final File moduleFolder = createModuleFolder();
+      final ModuleFingerprints fingerprints = context.getFingerprints();
+      if (fingerprints != null)
+      {
+        createIfChanged(fingerprints, moduleFolder);
+        return;
+      }
+
       createModuleXml(moduleFolder);
       if (!context.isGenerateFeaturePackDefinition())
       {
@@ -108,16 +149,79 @@ public final class ModuleBuilder
     }
   }
 
-  private File createModuleFolder() throws IOException
+  private void createIfChanged(final ModuleFingerprints fingerprints,
+      final File moduleFolder) throws IOException
   {
-    final String path = module.getName().replace('.', '/');
+    final byte[] moduleXml = renderModuleXml();
+    final List<Dependency> resources =
+        context.isGenerateFeaturePackDefinition() ? null : dependencies;
+    final String fingerprint =
+        ModuleFingerprints.calcFingerprint(moduleXml, resources,
+            context.getResourceStaging());
+    if (fingerprints.update(moduleFolder, fingerprint)
+        && ModuleFingerprints.isComplete(moduleFolder, resources))
+    {
+      return;
+    }
 
-    final File folder = new File(context.getTargetFolder(), path);
-    final File slotFolder = new File(folder, calcSlot());
+    FileUtils.writeByteArrayToFile(new File(moduleFolder, "module.xml"),
+        moduleXml);
+    if (resources != null)
+    {
+      copyResources(moduleFolder);
+    }
+  }
+
+  private byte[] renderModuleXml() throws IOException
+  {
+    final ModuleXmlBuilder xml = new ModuleXmlBuilder(context, module, dependencies);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
+    if (context.isStreamModuleXml() && xml.write(out))
+    {
+      return out.toByteArray();
+    }
+
+    out.reset();
+    final XMLOutputter outputter = new XMLOutputter();
+    outputter.setFormat(Format.getPrettyFormat());
+    outputter.output(xml.build(), out);
+    return out.toByteArray();
+  }
+
+  private void addToArchive(final ModuleArchive archive) throws IOException
+  {
+    final String path =
+        module.getName().replace('.', '/') + '/' + calcSlot() + '/';
+    archive.add(path + "module.xml", renderModuleXml());
+    if (!context.isGenerateFeaturePackDefinition())
+    {
+      final Map<String, File> resources = new TreeMap<String, File>();
+      for (final Dependency dependency : dependencies)
+      {
+        final File remoteFile = dependency.getArtifact().getFile();
+        if (remoteFile != null)
+        {
+          resources.put(path + remoteFile.getName(), remoteFile);
+        }
+        else
+        {
+          warnNonExistingFile(dependency);
+        }
+      }
+      for (final Map.Entry<String, File> resource : resources.entrySet())
+      {
+        archive.add(resource.getKey(), resource.getValue());
+      }
+    }
+  }
+
+  private File createModuleFolder() throws IOException
+  {
+    final File slotFolder = getModuleFolder();
     if (!slotFolder.exists())
     {
       final boolean created = slotFolder.mkdirs();
-      if (!created)
+      if (!created && !slotFolder.isDirectory())
       {
         throw new IOException(String.format("Cannot created folder '%s' for module '%s'.", slotFolder.getAbsolutePath(),
             module.getName()));
@@ -163,9 +267,14 @@ public final class ModuleBuilder
   private void createModuleXml(final File moduleFolder) throws IOException
   {
     final ModuleXmlBuilder xml = new ModuleXmlBuilder(context, module, dependencies);
+    final File file = new File(moduleFolder, "module.xml");
+    if (context.isStreamModuleXml() && writeModuleXml(xml, file))
+    {
+      return;
+    }
+
     final XMLOutputter outputter = new XMLOutputter();
     outputter.setFormat(Format.getPrettyFormat());
-    final File file = new File(moduleFolder, "module.xml");
     OutputStream out = null;
     try
     {
@@ -179,6 +288,21 @@ public final class ModuleBuilder
     }
   }
 
+  private static boolean writeModuleXml(final ModuleXmlBuilder xml,
+      final File file) throws IOException
+  {
+    OutputStream out = null;
+    try
+    {
+      out = new BufferedOutputStream(new FileOutputStream(file));
+      return xml.write(out);
+    }
+    finally
+    {
+      IOUtils.closeQuietly(out);
+    }
+  }
+
   private void copyResources(final File moduleFolder) throws IOException
   {
     for (final Dependency dependency : dependencies)
@@ -188,16 +312,28 @@ public final class ModuleBuilder
       if (remoteFile != null)
       {
         final File localFile = new File(moduleFolder, remoteFile.getName());
-        FileUtils.copyFile(remoteFile, localFile);
+        final ResourceStaging staging = context.getResourceStaging();
+        final ResourceStaging applied = staging.stage(remoteFile, localFile);
+        if (applied != staging && context.getLog().isDebugEnabled())
+        {
+          context.getLog().debug(
+              String.format("Cannot stage '%s' as %s, used %s instead.",
+                  remoteFile, staging, applied));
+        }
       }
       else
       {
-        context.getLog()
-            .warn(String.format("Cannot copy non-existing remote file for dependency '%s'.", dependency.getArtifact()));
+        warnNonExistingFile(dependency);
       }
     }
   }
 
+  private void warnNonExistingFile(final Dependency dependency)
+  {
+    context.getLog()
+        .warn(String.format("Cannot copy non-existing remote file for dependency '%s'.", dependency.getArtifact()));
+  }
+
   // --- object basics --------------------------------------------------------
 
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.domain;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.graph.Dependency;
+
+import de.smartics.maven.plugin.jboss.modules.util.Arg;
+import de.smartics.maven.plugin.jboss.modules.util.DigestBuilder;
+
+/**
+ * Stores a fingerprint for each module created to skip modules that are
+ * unchanged since the previous build. The fingerprint of a module is
+ * calculated from the contents of its <code>module.xml</code> descriptor and
+ * the path, size and modification time of each resource copied into the
+ * module.
+ * <p>
+ * The fingerprints of the previous build are read from the manifest file with
+ * {@link #read()}, the fingerprints of the modules of the current build are
+ * written with {@link #write()}. Modules not created in the current build are
+ * dropped from the manifest.
+ * </p>
+ */
+@ThreadSafe
+public final class ModuleFingerprints
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The encoding of the manifest file.
+   */
+  private static final String ENCODING = "UTF-8";
+
+  /**
+   * The separator of module path and fingerprint in a line of the manifest.
+   */
+  private static final char SEPARATOR = '\t';
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The file to store the fingerprints to.
+   */
+  private final File manifestFile;
+
+  /**
+   * The fingerprints of the previous build, indexed by module folder.
+   */
+  private final ConcurrentMap<String, String> previousFingerprints =
+      new ConcurrentHashMap<String, String>();
+
+  /**
+   * The fingerprints of the current build, indexed by module folder.
+   */
+  private final ConcurrentMap<String, String> currentFingerprints =
+      new ConcurrentHashMap<String, String>();
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @param manifestFile the file to store the fingerprints to.
+   * @throws NullPointerException if {@code manifestFile} is <code>null</code>.
+   */
+  public ModuleFingerprints(final File manifestFile)
+    throws NullPointerException
+  {
+    this.manifestFile = Arg.checkNotNull("manifestFile", manifestFile);
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the file to store the fingerprints to.
+   *
+   * @return the file to store the fingerprints to.
+   */
+  public File getManifestFile()
+  {
+    return manifestFile;
+  }
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Reads the fingerprints of the previous build from the manifest file. If
+   * the file does not exist, all modules are considered changed.
+   *
+   * @throws IOException on any problem reading the manifest file.
+   */
+  public void read() throws IOException
+  {
+    if (manifestFile.isFile())
+    {
+      for (final String line : FileUtils.readLines(manifestFile, ENCODING))
+      {
+        final int index = line.lastIndexOf(SEPARATOR);
+        if (index > 0)
+        {
+          previousFingerprints.put(line.substring(0, index),
+              line.substring(index + 1));
+        }
+      }
+    }
+  }
+
+  /**
+   * Calculates the fingerprint of a module.
+   *
+   * @param moduleXml the contents of the <code>module.xml</code> descriptor.
+   * @param resources the dependencies whose files are copied into the module,
+   *          in any order. May be <code>null</code> if no files are copied.
+   * @param resourceStaging the strategy to stage the resources with.
+   * @return the fingerprint of the module.
+   */
+  public static String calcFingerprint(final byte[] moduleXml,
+      final Collection<Dependency> resources,
+      final ResourceStaging resourceStaging)
+  {
+    final DigestBuilder digest = new DigestBuilder();
+    try
+    {
+      digest.add("module.xml", new String(moduleXml, ENCODING));
+    }
+    catch (final IOException e)
+    {
+      throw new IllegalStateException(
+          "UTF-8 encoding not supported on this platform.", e);
+    }
+    if (resources != null)
+    {
+      digest.add("resourceStaging", resourceStaging);
+      final Set<String> stamps = new TreeSet<String>();
+      for (final Dependency dependency : resources)
+      {
+        final File file = dependency.getArtifact().getFile();
+        if (file != null)
+        {
+          stamps.add(file.getAbsolutePath() + ' ' + file.length() + ' '
+                     + file.lastModified());
+        }
+      }
+      for (final String stamp : stamps)
+      {
+        digest.add("resource", stamp);
+      }
+    }
+    return digest.build();
+  }
+
+  /**
+   * Records the fingerprint of a module of the current build and checks if
+   * the module is unchanged since the previous build.
+   *
+   * @param moduleFolder the folder of the module.
+   * @param fingerprint the fingerprint of the module.
+   * @return <code>true</code> if the fingerprint equals the fingerprint of the
+   *         previous build, <code>false</code> otherwise.
+   */
+  public boolean update(final File moduleFolder, final String fingerprint)
+  {
+    final String key = moduleFolder.getAbsolutePath();
+    currentFingerprints.put(key, fingerprint);
+    return fingerprint.equals(previousFingerprints.get(key));
+  }
+
+  /**
+   * Checks if the files of a module still exist in the module folder.
+   *
+   * @param moduleFolder the folder of the module.
+   * @param resources the dependencies whose files are copied into the module.
+   *          May be <code>null</code> if no files are copied.
+   * @return <code>true</code> if the descriptor and all copied files exist,
+   *         <code>false</code> otherwise.
+   */
+  public static boolean isComplete(final File moduleFolder,
+      final Collection<Dependency> resources)
+  {
+    if (!new File(moduleFolder, "module.xml").isFile())
+    {
+      return false;
+    }
+    if (resources != null)
+    {
+      for (final Dependency dependency : resources)
+      {
+        final Artifact artifact = dependency.getArtifact();
+        final File file = artifact.getFile();
+        if (file != null)
+        {
+          final File copy = new File(moduleFolder, file.getName());
+          if (!copy.isFile() || copy.length() != file.length())
+          {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes the fingerprints of the modules of the current build to the
+   * manifest file.
+   *
+   * @throws IOException on any problem writing the manifest file.
+   */
+  public void write() throws IOException
+  {
+    final Map<String, String> sorted =
+        new TreeMap<String, String>(currentFingerprints);
+    final List<String> lines = new ArrayList<String>(sorted.size());
+    for (final Map.Entry<String, String> entry : sorted.entrySet())
+    {
+      lines.add(entry.getKey() + SEPARATOR + entry.getValue());
+    }
+    FileUtils.writeLines(manifestFile, ENCODING, lines, "\n");
+  }
+
+  // --- object basics --------------------------------------------------------
+
+  @Override
+  public String toString()
+  {
+    return manifestFile.getPath() + ": " + currentFingerprints.size()
+           + " modules";
+  }
+}
@@ -17,34 +17,93 @@ package de.smartics.maven.plugin.jboss.modules.domain;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
-import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
 
-import org.apache.commons.lang.ObjectUtils;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.graph.Dependency;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusionIndex;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactMatcher;
 import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
 import de.smartics.maven.plugin.jboss.modules.util.Arg;
 
 /**
- * Maps artifacts to their modules.
+ * Maps artifacts to their modules. Dependencies may be added and queried by
+ * concurrent threads.
  */
-@NotThreadSafe
+@ThreadSafe
 public final class ModuleMap
 {
   // ********************************* Fields *********************************
 
   // --- constants ------------------------------------------------------------
 
+  /**
+   * Creates the dependencies of a module stored for the first time.
+   */
+  private static final Function<ModuleDescriptor, ModuleDependencies> CREATE_MODULE_DEPENDENCIES =
+      new Function<ModuleDescriptor, ModuleDependencies>()
+      {
+        @Override
+        public ModuleDependencies apply(final ModuleDescriptor module)
+        {
+          return new ModuleDependencies(module);
+        }
+      };
+
+  /**
+   * Orders modules by name and slot.
+   */
+  private static final Comparator<ModuleDependencies> MODULE_ORDER =
+      new Comparator<ModuleDependencies>()
+      {
+        @Override
+        public int compare(final ModuleDependencies o1,
+            final ModuleDependencies o2)
+        {
+          final int result = o1.module.getName().compareTo(o2.module.getName());
+          if (result != 0)
+          {
+            return result;
+          }
+          final String slot1 = o1.module.getSlot();
+          final String slot2 = o2.module.getSlot();
+          if (slot1 == null || slot2 == null)
+          {
+            return slot1 == null ? (slot2 == null ? 0 : -1) : 1;
+          }
+          return slot1.compareTo(slot2);
+        }
+      };
+
+  /**
+   * Orders dependencies by their string representation.
+   */
+  private static final Comparator<Dependency> DEPENDENCY_ORDER =
+      new Comparator<Dependency>()
+      {
+        @Override
+        public int compare(final Dependency o1, final Dependency o2)
+        {
+          return o1.toString().compareTo(o2.toString());
+        }
+      };
+
   // --- members --------------------------------------------------------------
 
   /**
@@ -53,16 +112,35 @@ public final class ModuleMap
   private final List<ModuleDescriptor> modules;
 
   /**
-   * Maps modules to their dependencies.
+   * The positions of the modules in {@link #modules}, indexed by the includes
+   * of the modules.
+   */
+  private final ArtifactClusionIndex<Integer> moduleIndex =
+      new ArtifactClusionIndex<Integer>();
+
+  /**
+   * The first module not to be skipped in {@link #modules} for each module
+   * name.
+   */
+  private final Map<String, ModuleDescriptor> name2Module =
+      new HashMap<String, ModuleDescriptor>();
+
+  /**
+   * Maps modules to their dependencies, indexed by name and slot.
    */
-  private final Multimap<ModuleDescriptor, Dependency> module2Dependencies =
-      HashMultimap.create();
+  private final ConcurrentMap<ModuleDescriptor, ModuleDependencies> module2Dependencies =
+      new ConcurrentHashMap<ModuleDescriptor, ModuleDependencies>();
 
   /**
-   * Maps a dependency to its module.
+   * Maps a dependency to its module and the clusion it has been assigned by.
    */
-  private final Map<DependencyKey, ModuleDescriptor> dependency2Module =
-      new HashMap<DependencyKey, ModuleDescriptor>();
+  private final ConcurrentMap<ArtifactKey, Assignment> dependency2Module =
+      new ConcurrentHashMap<ArtifactKey, Assignment>();
+
+  /**
+   * Interns the keys of the dependencies.
+   */
+  private final ArtifactKey.Pool keys;
 
   // ****************************** Initializer *******************************
 
@@ -84,6 +162,8 @@ public final class ModuleMap
   public ModuleMap(final List<ModuleDescriptor> modules)
   {
     this.modules = modules;
+    this.keys = new ArtifactKey.Pool();
+    initModuleIndex();
   }
 
   /**
@@ -94,10 +174,28 @@ public final class ModuleMap
    */
   public ModuleMap(final List<ModuleDescriptor> modulesDescriptors,
       final Collection<Dependency> dependencies)
+  {
+    this(modulesDescriptors, dependencies, new ArtifactKey.Pool());
+  }
+
+  /**
+   * Convenience constructor to initialize with values and share the keys of
+   * artifacts with other components.
+   *
+   * @param modulesDescriptors the configured modules.
+   * @param dependencies the dependencies to add.
+   * @param keys the pool to intern the keys of the dependencies.
+   * @throws NullPointerException if {@code keys} is <code>null</code>.
+   */
+  public ModuleMap(final List<ModuleDescriptor> modulesDescriptors,
+      final Collection<Dependency> dependencies, final ArtifactKey.Pool keys)
+    throws NullPointerException
   {
     this.modules =
         new ArrayList<ModuleDescriptor>(modulesDescriptors != null
             ? modulesDescriptors : new ArrayList<ModuleDescriptor>());
+    this.keys = Arg.checkNotNull("keys", keys);
+    initModuleIndex();
 
     initDependencies(dependencies);
   }
@@ -105,90 +203,85 @@ public final class ModuleMap
   // ****************************** Inner Classes *****************************
 
   /**
-   * Makes dependencies equal according to the referenced artifact.
+   * The dependencies of a module.
    */
-  private static final class DependencyKey
+  private static final class ModuleDependencies
   {
-    // ******************************** Fields ********************************
-
-    // --- constants ----------------------------------------------------------
-
-    // --- members ------------------------------------------------------------
-
     /**
-     * The wrapped dependency.
+     * The module modules with the same name and slot are merged into.
      */
-    private final Dependency dependency;
-
-    // ***************************** Initializer ******************************
+    private final ModuleDescriptor module;
 
-    // ***************************** Constructors *****************************
+    /**
+     * The dependencies of the module.
+     */
+    private final Set<Dependency> dependencies = Collections
+        .newSetFromMap(new ConcurrentHashMap<Dependency, Boolean>());
 
-    private DependencyKey(final Dependency dependency)
+    private ModuleDependencies(final ModuleDescriptor module)
     {
-      this.dependency = dependency;
+      this.module = module;
     }
+  }
 
-    // ***************************** Inner Classes ****************************
-
-    // ******************************** Methods *******************************
-
-    // --- init ---------------------------------------------------------------
-
-    // --- get&set ------------------------------------------------------------
+  /**
+   * The assignment of a dependency to a module.
+   */
+  private static final class Assignment
+  {
+    /**
+     * The module the dependency is assigned to.
+     */
+    private final ModuleDescriptor module;
 
-    // --- business -----------------------------------------------------------
+    /**
+     * The matcher that matched the dependency or, if the module has been
+     * created for the dependency, the matcher of the created module.
+     */
+    private final ArtifactMatcher matcher;
 
-    // --- object basics ------------------------------------------------------
+    /**
+     * The clusion of the matcher that matched the dependency. May be
+     * <code>null</code>, if the module has been created for the dependency.
+     */
+    private final ArtifactClusion clusion;
 
-    @Override
-    public int hashCode()
+    private Assignment(final ModuleDescriptor module,
+        final ArtifactMatcher matcher, final ArtifactClusion clusion)
     {
-      return dependency.getArtifact().hashCode();
+      this.module = module;
+      this.matcher = matcher;
+      this.clusion = clusion;
     }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
 
-    @Override
-    public boolean equals(final Object object)
+  private void initModuleIndex()
+  {
+    for (int i = 0; i < modules.size(); i++)
     {
-      if (this == object)
+      final ModuleDescriptor module = modules.get(i);
+      if (!module.getDirectives().getSkip()
+          && !name2Module.containsKey(module.getName()))
       {
-        return true;
+        name2Module.put(module.getName(), module);
       }
-      else if (object == null || getClass() != object.getClass())
+
+      final List<ArtifactClusion> includes =
+          module.getMatcher().getIncludes();
+      if (includes != null)
       {
-        return false;
+        for (final ArtifactClusion include : includes)
+        {
+          moduleIndex.add(include, i);
+        }
       }
-
-      final ModuleMap.DependencyKey other = (ModuleMap.DependencyKey) object;
-
-      final Artifact artifact = dependency.getArtifact();
-      final Artifact otherArtifact = other.dependency.getArtifact();
-
-      return checkArtifactsWithoutProperties(artifact, otherArtifact);
-    }
-
-    private boolean checkArtifactsWithoutProperties(final Artifact artifact,
-        final Artifact otherArtifact)
-    {
-      return (artifact.getArtifactId().equals(otherArtifact.getArtifactId())
-              && artifact.getGroupId().equals(otherArtifact.getGroupId())
-              && artifact.getVersion().equals(otherArtifact.getVersion())
-              && artifact.getExtension().equals(otherArtifact.getExtension())
-              && artifact.getClassifier().equals(otherArtifact.getClassifier()) && ObjectUtils
-          .equals(artifact.getFile(), otherArtifact.getFile()));
-    }
-
-    @Override
-    public String toString()
-    {
-      return dependency.toString();
     }
   }
 
-  // ********************************* Methods ********************************
-
-  // --- init -----------------------------------------------------------------
-
   private void initDependencies(final Collection<Dependency> dependencies)
   {
     for (final Dependency dependency : dependencies)
@@ -200,19 +293,25 @@ public final class ModuleMap
   // --- get&set --------------------------------------------------------------
 
   /**
-   * Returns the map of modules.
+   * Returns the map of modules. The modules are ordered by name and slot, the
+   * dependencies of each module by their string representation.
    *
    * @return the map of modules.
    */
-  public synchronized Map<ModuleDescriptor, List<Dependency>> toMap()
+  public Map<ModuleDescriptor, List<Dependency>> toMap()
   {
+    final List<ModuleDependencies> entries =
+        new ArrayList<ModuleDependencies>(module2Dependencies.values());
+    Collections.sort(entries, MODULE_ORDER);
+
     final Map<ModuleDescriptor, List<Dependency>> map =
         new LinkedHashMap<ModuleDescriptor, List<Dependency>>();
-    for (final Entry<ModuleDescriptor, Collection<Dependency>> entry : module2Dependencies
-        .asMap().entrySet())
+    for (final ModuleDependencies entry : entries)
     {
-      final List<Dependency> list = new ArrayList<Dependency>(entry.getValue());
-      map.put(entry.getKey(), list);
+      final List<Dependency> list =
+          new ArrayList<Dependency>(entry.dependencies);
+      Collections.sort(list, DEPENDENCY_ORDER);
+      map.put(entry.module, list);
     }
     return map;
   }
@@ -227,89 +326,97 @@ public final class ModuleMap
    * @param dependency the dependency to add.
    * @return the module the dependency is associated with.
    */
-  public synchronized ModuleDescriptor add(final Dependency dependency)
+  public ModuleDescriptor add(final Dependency dependency)
   {
-    final DependencyKey key = new DependencyKey(dependency);
-    final ModuleDescriptor alreadyStoredModule = dependency2Module.get(key);
-    if (alreadyStoredModule != null)
+    final ArtifactKey key = keys.intern(dependency.getArtifact());
+    final Assignment alreadyStored = dependency2Module.get(key);
+    if (alreadyStored != null)
     {
-      return alreadyStoredModule;
+      return alreadyStored.module;
     }
 
-    final ModuleDescriptor module = calcModule(key);
-    storeArtifact(module, dependency);
-    return module;
+    final Assignment assignment = calcAssignment(dependency);
+    final ModuleDescriptor module = assignment.module;
+    if (module.getDirectives().getSkip())
+    {
+      return module;
+    }
+
+    return dependency2Module.computeIfAbsent(key,
+        new Function<ArtifactKey, Assignment>()
+        {
+          @Override
+          public Assignment apply(final ArtifactKey key)
+          {
+            storeArtifact(module, dependency);
+            return assignment;
+          }
+        }).module;
   }
 
-  private ModuleDescriptor calcModule(final DependencyKey key)
+  private Assignment findAssignment(final Artifact artifact)
   {
-    final ModuleDescriptor alreadyStoredModule = dependency2Module.get(key);
-    if (alreadyStoredModule != null)
-    {
-      return alreadyStoredModule;
-    }
+    final ArtifactKey key = keys.find(artifact);
+    return key != null ? dependency2Module.get(key) : null;
+  }
 
-    for (final ModuleDescriptor module : modules)
+  private Assignment calcAssignment(final Dependency dependency)
+  {
+    final Artifact artifact = dependency.getArtifact();
+    final SortedSet<Integer> candidates = new TreeSet<Integer>();
+    moduleIndex.collectCandidates(artifact, candidates);
+    for (final Integer index : candidates)
     {
-      final MatchContext matchContext =
-          module.match(key.dependency.getArtifact());
+      final ModuleDescriptor module = modules.get(index);
+      final MatchContext matchContext = module.match(artifact);
       if (matchContext.isMatched())
       {
+        final ArtifactMatcher matcher = module.getMatcher();
+        final ArtifactClusion clusion = matchContext.getClusion();
         if (matchContext.hasGroupMatch())
         {
           final String name = matchContext.translateName(module.getName());
           final ModuleDescriptor matchingModule = findMatchingModule(name);
           if (matchingModule != null)
           {
-            return matchingModule;
+            return new Assignment(matchingModule, matcher, clusion);
           }
           else
           {
             final ModuleDescriptor newModule = createModule(matchContext, module);
-            return newModule;
+            return new Assignment(newModule, matcher, clusion);
           }
         }
         else
         {
-          return module;
+          return new Assignment(module, matcher, clusion);
         }
       }
     }
 
-    final ModuleDescriptor module = createModule(key.dependency);
-    return module;
+    final ModuleDescriptor module = createModule(dependency);
+    return new Assignment(module, module.getMatcher(), null);
   }
 
-  private ModuleDescriptor findMatchingModule(String name)
+  private ModuleDescriptor findMatchingModule(final String name)
   {
-    for (ModuleDescriptor moduleDescriptor : modules)
-    {
-      if (moduleDescriptor.getName().equals(name) && !moduleDescriptor.getDirectives().getSkip())
-      {
-        return moduleDescriptor;
-      }
-    }
-    return null;
+    return name2Module.get(name);
   }
 
   private void storeArtifact(final ModuleDescriptor module,
       final Dependency dependency)
   {
-    if (!module.getDirectives().getSkip())
+    final ModuleDependencies stored =
+        module2Dependencies.computeIfAbsent(module, CREATE_MODULE_DEPENDENCIES);
+    final ModuleDescriptor current = stored.module;
+    if (current != module)
     {
-      if (module2Dependencies.containsKey(module))
+      synchronized (current)
       {
-        for (final ModuleDescriptor current : module2Dependencies.keySet())
-        {
-          if (module.equals(current))
-          {
-            current.merge(module);
-          }
-        }
+        current.merge(module);
       }
-      module2Dependencies.put(module, dependency);
-      dependency2Module.put(new DependencyKey(dependency), module);
     }
+    stored.dependencies.add(dependency);
   }
 
   private ModuleDescriptor createModule(final MatchContext matchContext,
@@ -369,16 +476,38 @@ public final class ModuleMap
    * @param dependency the artifact whose module is requested.
    * @return the module of the dependency.
    */
-  public synchronized ModuleDescriptor getModule(final Dependency dependency)
+  public ModuleDescriptor getModule(final Dependency dependency)
   {
-    final DependencyKey key = new DependencyKey(dependency);
-    ModuleDescriptor module = dependency2Module.get(key);
+    Assignment assignment = findAssignment(dependency.getArtifact());
 
-    if (module == null)
+    if (assignment == null)
     {
-      module = calcModule(key);
+      assignment = calcAssignment(dependency);
     }
-    return module;
+    return assignment.module;
+  }
+
+  /**
+   * Returns the filter of the clusion that matches the dependency for the
+   * given module. If the dependency has been added by the matcher of the
+   * module, the clusion recorded at that time is used without matching the
+   * dependency again.
+   *
+   * @param module the module whose matcher is to match the dependency.
+   * @param dependency the dependency to find the filter for.
+   * @return an XML fragment or <code>null</code>.
+   * @see ArtifactMatcher#findFilter(Artifact)
+   */
+  public String findFilter(final ModuleDescriptor module,
+      final Dependency dependency)
+  {
+    final ArtifactMatcher matcher = module.getMatcher();
+    final Assignment assignment = findAssignment(dependency.getArtifact());
+    if (assignment != null && assignment.matcher == matcher)
+    {
+      return assignment.clusion != null ? assignment.clusion.getFilter() : null;
+    }
+    return matcher.findFilter(dependency.getArtifact());
   }
 
   // --- object basics --------------------------------------------------------
@@ -387,8 +516,8 @@ public final class ModuleMap
   public String toString()
   {
     final StringBuilder buffer = new StringBuilder(2048);
-    for (final Entry<ModuleDescriptor, Collection<Dependency>> entry : module2Dependencies
-        .asMap().entrySet())
+    for (final Entry<ModuleDescriptor, List<Dependency>> entry : toMap()
+        .entrySet())
     {
       final ModuleDescriptor module = entry.getKey();
       buffer.append('\n').append(module.getName()).append(':');
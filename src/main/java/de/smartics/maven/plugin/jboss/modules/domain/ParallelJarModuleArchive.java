@@ -0,0 +1,564 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.domain;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.commons.compress.archivers.jar.JarArchiveEntry;
+import org.apache.commons.compress.archivers.jar.JarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+
+import de.smartics.maven.plugin.jboss.modules.util.Arg;
+
+/**
+ * Writes the files of modules to a jar file, compressing the entries
+ * concurrently on a pool of threads. The compressed entries are written in
+ * the order they are added, so the archive does not depend on the number of
+ * threads.
+ * <p>
+ * Only a bounded number of compressed entries waits to be written at any
+ * time. Compressed contents exceeding a threshold are kept in temporary files
+ * instead of in memory. Resources that are jar files are optionally stored
+ * instead of being deflated again. Their contents are copied to the archive
+ * without being held in memory.
+ * </p>
+ * <p>
+ * Entries not backed by a file are written with a fixed time, as with
+ * {@link JarModuleArchive}.
+ * </p>
+ */
+@ThreadSafe
+public final class ParallelJarModuleArchive implements ModuleArchive
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The size of the buffer to read files with.
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The size of compressed contents up to which the contents are kept in
+   * memory.
+   */
+  private static final int MEMORY_THRESHOLD = 4 * 1024 * 1024;
+
+  /**
+   * The number of compressed entries per thread that may wait to be written.
+   */
+  private static final int PENDING_ENTRIES_PER_THREAD = 4;
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The stream to write the entries to.
+   */
+  private final JarArchiveOutputStream out;
+
+  /**
+   * The pool to compress entries on.
+   */
+  private final ExecutorService executor;
+
+  /**
+   * The maximum number of compressed entries waiting to be written.
+   */
+  private final int maxPendingEntries;
+
+  /**
+   * The level to deflate entries with.
+   */
+  private final int compressionLevel;
+
+  /**
+   * Whether to store resources that are jar files instead of deflating them.
+   */
+  private final boolean storeJars;
+
+  /**
+   * The time of entries not backed by a file.
+   */
+  private final long entryTime;
+
+  /**
+   * The entries waiting to be written, in the order they have been added.
+   */
+  private final LinkedList<Future<CompressedEntry>> pendingEntries =
+      new LinkedList<Future<CompressedEntry>>();
+
+  /**
+   * The directory entries already added.
+   */
+  private final Set<String> directories = new HashSet<String>();
+
+  /**
+   * Signals that writing an entry failed so that pending entries are
+   * discarded on closing.
+   */
+  private boolean failed;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Convenience constructor. Writes entries not backed by a file with the
+   * {@link JarModuleArchive#DEFAULT_ENTRY_TIME}.
+   *
+   * @param file the jar file to write.
+   * @param manifest the manifest to write as first entry.
+   * @param threads the number of threads to compress entries on.
+   * @param compressionLevel the level to deflate entries with, from
+   *          {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}
+   *          or {@link Deflater#DEFAULT_COMPRESSION}.
+   * @param storeJars whether to store resources that are jar files instead of
+   *          deflating them.
+   * @throws NullPointerException if {@code file} or {@code manifest} is
+   *           <code>null</code>.
+   * @throws IllegalArgumentException if {@code threads} is less than one or
+   *           {@code compressionLevel} is not a valid level.
+   * @throws IOException on any problem creating the jar file.
+   */
+  public ParallelJarModuleArchive(final File file, final Manifest manifest,
+      final int threads, final int compressionLevel, final boolean storeJars)
+    throws NullPointerException, IllegalArgumentException, IOException
+  {
+    this(file, manifest, threads, compressionLevel, storeJars,
+        JarModuleArchive.DEFAULT_ENTRY_TIME);
+  }
+
+  /**
+   * Default constructor.
+   *
+   * @param file the jar file to write.
+   * @param manifest the manifest to write as first entry.
+   * @param threads the number of threads to compress entries on.
+   * @param compressionLevel the level to deflate entries with, from
+   *          {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}
+   *          or {@link Deflater#DEFAULT_COMPRESSION}.
+   * @param storeJars whether to store resources that are jar files instead of
+   *          deflating them.
+   * @param entryTime the time in milliseconds since the epoch to write entries
+   *          not backed by a file with.
+   * @throws NullPointerException if {@code file} or {@code manifest} is
+   *           <code>null</code>.
+   * @throws IllegalArgumentException if {@code threads} is less than one or
+   *           {@code compressionLevel} is not a valid level.
+   * @throws IOException on any problem creating the jar file.
+   */
+  public ParallelJarModuleArchive(final File file, final Manifest manifest,
+      final int threads, final int compressionLevel, final boolean storeJars,
+      final long entryTime) throws NullPointerException,
+    IllegalArgumentException, IOException
+  {
+    Arg.checkNotNull("file", file);
+    Arg.checkNotNull("manifest", manifest);
+    if (threads < 1)
+    {
+      throw new IllegalArgumentException(
+          "The number of threads must be at least one, but is " + threads
+              + '.');
+    }
+    this.compressionLevel = JarModuleArchive.checkLevel(compressionLevel);
+    this.storeJars = storeJars;
+    this.entryTime = entryTime;
+    this.maxPendingEntries = threads * PENDING_ENTRIES_PER_THREAD;
+
+    this.out = new JarArchiveOutputStream(JarModuleArchive.openFile(file));
+    this.executor = Executors.newFixedThreadPool(threads);
+    try
+    {
+      writeManifest(manifest);
+    }
+    catch (final IOException e)
+    {
+      executor.shutdownNow();
+      IOUtils.closeQuietly(out);
+      throw e;
+    }
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * An entry with its contents prepared to be copied to the archive as is.
+   */
+  private static final class CompressedEntry
+  {
+    /**
+     * The entry with method, checksum and sizes set.
+     */
+    private final ZipArchiveEntry entry;
+
+    /**
+     * The raw contents of the entry if held in memory. May be
+     * <code>null</code>.
+     */
+    private final byte[] data;
+
+    /**
+     * The file with the raw contents of the entry if not held in memory. May
+     * be <code>null</code>.
+     */
+    private final File file;
+
+    /**
+     * Whether {@link #file} is a temporary file to be deleted after writing.
+     */
+    private final boolean temporary;
+
+    private CompressedEntry(final ZipArchiveEntry entry, final byte[] data,
+        final File file, final boolean temporary)
+    {
+      this.entry = entry;
+      this.data = data;
+      this.file = file;
+      this.temporary = temporary;
+    }
+
+    private InputStream openStream() throws IOException
+    {
+      return data != null ? new ByteArrayInputStream(data)
+          : new FileInputStream(file);
+    }
+
+    private void discard()
+    {
+      if (temporary)
+      {
+        file.delete();
+      }
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  private void writeManifest(final Manifest manifest) throws IOException
+  {
+    final ZipArchiveEntry directory = new JarArchiveEntry("META-INF/");
+    directory.setTime(entryTime);
+    directories.add(directory.getName());
+    out.putArchiveEntry(directory);
+    out.closeArchiveEntry();
+
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+    manifest.write(buffer);
+    final ZipArchiveEntry entry = new JarArchiveEntry(JarFile.MANIFEST_NAME);
+    entry.setTime(entryTime);
+    out.putArchiveEntry(entry);
+    buffer.writeTo(out);
+    out.closeArchiveEntry();
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  @Override
+  public synchronized void add(final String name, final byte[] content)
+    throws IOException
+  {
+    enqueue(name, new Callable<CompressedEntry>()
+    {
+      @Override
+      public CompressedEntry call() throws IOException
+      {
+        final ZipArchiveEntry entry = new JarArchiveEntry(name);
+        entry.setTime(entryTime);
+        final ByteArrayOutputStream buffer =
+            new ByteArrayOutputStream(content.length / 2 + 64);
+        final CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        final Deflater deflater = new Deflater(compressionLevel, true);
+        try
+        {
+          final DeflaterOutputStream deflaterOut =
+              new DeflaterOutputStream(buffer, deflater);
+          deflaterOut.write(content);
+          deflaterOut.finish();
+        }
+        finally
+        {
+          deflater.end();
+        }
+        final byte[] data = buffer.toByteArray();
+        setDeflated(entry, crc.getValue(), content.length, data.length);
+        return new CompressedEntry(entry, data, null, false);
+      }
+    });
+  }
+
+  @Override
+  public synchronized void add(final String name, final File file)
+    throws IOException
+  {
+    enqueue(name, new Callable<CompressedEntry>()
+    {
+      @Override
+      public CompressedEntry call() throws IOException
+      {
+        final ZipArchiveEntry entry = new JarArchiveEntry(name);
+        entry.setTime(file.lastModified());
+        if (storeJars && JarModuleArchive.isJar(name))
+        {
+          final long size = file.length();
+          entry.setMethod(ZipEntry.STORED);
+          entry.setCrc(JarModuleArchive.calcCrc(file));
+          entry.setSize(size);
+          entry.setCompressedSize(size);
+          return new CompressedEntry(entry, null, file, false);
+        }
+        return deflate(entry, file);
+      }
+    });
+  }
+
+  private CompressedEntry deflate(final ZipArchiveEntry entry,
+      final File file) throws IOException
+  {
+    final DeferredFileOutputStream buffer =
+        new DeferredFileOutputStream(MEMORY_THRESHOLD, "jboss-modules-",
+            ".deflated", null);
+    final CRC32 crc = new CRC32();
+    final Deflater deflater = new Deflater(compressionLevel, true);
+    final byte[] bytes = new byte[BUFFER_SIZE];
+    long size = 0;
+    InputStream in = null;
+    try
+    {
+      in = new FileInputStream(file);
+      final DeflaterOutputStream deflaterOut =
+          new DeflaterOutputStream(buffer, deflater, BUFFER_SIZE);
+      for (int count = in.read(bytes); count >= 0; count = in.read(bytes))
+      {
+        crc.update(bytes, 0, count);
+        deflaterOut.write(bytes, 0, count);
+        size += count;
+      }
+      deflaterOut.finish();
+    }
+    catch (final IOException e)
+    {
+      IOUtils.closeQuietly(buffer);
+      if (!buffer.isInMemory())
+      {
+        buffer.getFile().delete();
+      }
+      throw e;
+    }
+    finally
+    {
+      IOUtils.closeQuietly(in);
+      deflater.end();
+    }
+    buffer.close();
+
+    setDeflated(entry, crc.getValue(), size, buffer.getByteCount());
+    return buffer.isInMemory() ? new CompressedEntry(entry, buffer.getData(),
+        null, false) : new CompressedEntry(entry, null, buffer.getFile(), true);
+  }
+
+  private static void setDeflated(final ZipArchiveEntry entry,
+      final long crc, final long size, final long compressedSize)
+  {
+    entry.setMethod(ZipEntry.DEFLATED);
+    entry.setCrc(crc);
+    entry.setSize(size);
+    entry.setCompressedSize(compressedSize);
+  }
+
+  private void enqueue(final String name,
+      final Callable<CompressedEntry> compressor) throws IOException
+  {
+    checkNotFailed();
+    for (int index = name.indexOf('/'); index >= 0; index =
+        name.indexOf('/', index + 1))
+    {
+      final String directory = name.substring(0, index + 1);
+      if (directories.add(directory))
+      {
+        final FutureTask<CompressedEntry> task =
+            new FutureTask<CompressedEntry>(new Callable<CompressedEntry>()
+            {
+              @Override
+              public CompressedEntry call()
+              {
+                final ZipArchiveEntry entry = new JarArchiveEntry(directory);
+                entry.setTime(entryTime);
+                entry.setMethod(ZipEntry.STORED);
+                entry.setCrc(0L);
+                entry.setSize(0L);
+                entry.setCompressedSize(0L);
+                return new CompressedEntry(entry, new byte[0], null, false);
+              }
+            });
+        task.run();
+        pendingEntries.add(task);
+      }
+    }
+    pendingEntries.add(executor.submit(compressor));
+    writeCompletedEntries();
+  }
+
+  private void checkNotFailed() throws IOException
+  {
+    if (failed)
+    {
+      throw new IOException("Cannot add entries after writing has failed.");
+    }
+  }
+
+  private void writeCompletedEntries() throws IOException
+  {
+    while (!pendingEntries.isEmpty()
+           && (pendingEntries.size() > maxPendingEntries || pendingEntries
+               .getFirst().isDone()))
+    {
+      writeFirstPendingEntry();
+    }
+  }
+
+  private void writeFirstPendingEntry() throws IOException
+  {
+    final CompressedEntry compressed = await(pendingEntries.removeFirst());
+    InputStream in = null;
+    try
+    {
+      in = compressed.openStream();
+      out.addRawArchiveEntry(compressed.entry, in);
+    }
+    catch (final IOException e)
+    {
+      failed = true;
+      throw e;
+    }
+    finally
+    {
+      IOUtils.closeQuietly(in);
+      compressed.discard();
+    }
+  }
+
+  private CompressedEntry await(final Future<CompressedEntry> future)
+    throws IOException
+  {
+    try
+    {
+      return future.get();
+    }
+    catch (final InterruptedException e)
+    {
+      failed = true;
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while compressing entries.", e);
+    }
+    catch (final ExecutionException e)
+    {
+      failed = true;
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+      {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException)
+      {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("Cannot compress entry.", cause);
+    }
+  }
+
+  /**
+   * Writes all pending entries and closes the archive. If writing an entry
+   * has failed before, pending entries are discarded.
+   *
+   * @throws IOException on any problem writing the pending entries or closing
+   *           the archive.
+   */
+  @Override
+  public synchronized void close() throws IOException
+  {
+    try
+    {
+      if (!failed)
+      {
+        while (!pendingEntries.isEmpty())
+        {
+          writeFirstPendingEntry();
+        }
+      }
+      out.close();
+    }
+    finally
+    {
+      executor.shutdown();
+      discardPendingEntries();
+      IOUtils.closeQuietly(out);
+    }
+  }
+
+  private void discardPendingEntries()
+  {
+    while (!pendingEntries.isEmpty())
+    {
+      final Future<CompressedEntry> future = pendingEntries.removeFirst();
+      try
+      {
+        future.get().discard();
+      }
+      catch (final InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      catch (final ExecutionException e)
+      {
+        // nothing to discard
+      }
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
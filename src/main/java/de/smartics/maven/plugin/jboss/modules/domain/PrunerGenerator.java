@@ -22,6 +22,7 @@ import org.eclipse.aether.collection.DependencyTraverser;
 
 import de.smartics.maven.plugin.jboss.modules.aether.DependencyTraverserGenerator;
 import de.smartics.maven.plugin.jboss.modules.aether.PruningDependencyTraverser;
+import de.smartics.maven.plugin.jboss.modules.aether.PruningIndex;
 import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
 import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
 
@@ -36,23 +37,19 @@ public class PrunerGenerator implements DependencyTraverserGenerator
 
   // --- members --------------------------------------------------------------
 
-  /**
-   * A list of dependencies to be excluded from the transitive dependency
-   * collection process.
-   */
-  private final List<ArtifactClusion> dependencyExcludes;
-
-  /**
-   * The module descriptors that skip dependency resolution.
-   */
-  private final List<ModuleDescriptor> skipModules;
-
   /**
    * The flag that allows to globally ignore exclusions declared in Maven
    * dependencies.
    */
   private final boolean ignoreDependencyExclusions;
 
+  /**
+   * The index on the dependencies to be excluded and the module descriptors
+   * that skip dependency resolution. The index is shared by all created
+   * traversers.
+   */
+  private final PruningIndex index;
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -76,11 +73,8 @@ public class PrunerGenerator implements DependencyTraverserGenerator
       final List<ModuleDescriptor> modules,
       final boolean ignoreDependencyExclusions)
   {
-    this.dependencyExcludes =
-        dependencyExcludes != null ? dependencyExcludes
-            : new ArrayList<ArtifactClusion>();
-    this.skipModules = calcSkipModules(modules);
     this.ignoreDependencyExclusions = ignoreDependencyExclusions;
+    this.index = new PruningIndex(dependencyExcludes, calcSkipModules(modules));
   }
 
   // ****************************** Inner Classes *****************************
@@ -124,8 +118,7 @@ public class PrunerGenerator implements DependencyTraverserGenerator
   public DependencyTraverser createDependencyTraverser(
       final DependencyTraverser delegate) throws NullPointerException
   {
-    return new PruningDependencyTraverser(delegate, dependencyExcludes,
-        skipModules);
+    return new PruningDependencyTraverser(delegate, index);
   }
 
   // --- object basics --------------------------------------------------------
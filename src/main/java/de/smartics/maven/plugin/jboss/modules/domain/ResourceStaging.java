@@ -0,0 +1,250 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.domain;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * The strategy to stage the resources of a module in the target folder.
+ * <p>
+ * Strategies that link to the file in the local repository fall back to a
+ * {@link #TRANSFER zero-copy transfer} if the link cannot be created, for
+ * instance because the target folder is located on a different file system.
+ * </p>
+ */
+public enum ResourceStaging
+{
+  // ***************************** Enumeration ******************************
+
+  // ******************************** Fields ********************************
+
+  // --- constants ----------------------------------------------------------
+
+  /**
+   * The resource is copied by streaming its contents (default).
+   */
+  COPY("copy"),
+
+  /**
+   * The resource is copied by transferring its contents from channel to
+   * channel, letting the operating system avoid copying through user space.
+   */
+  TRANSFER("transfer"),
+
+  /**
+   * The resource is staged as a hard link to the file in the local repository.
+   */
+  HARD_LINK("hardlink"),
+
+  /**
+   * The resource is staged as a symbolic link to the file in the local
+   * repository.
+   */
+  SYMBOLIC_LINK("symlink");
+
+  // --- members ------------------------------------------------------------
+
+  /**
+   * The identifier of the strategy.
+   */
+  private String id;
+
+  // ***************************** Constructors *****************************
+
+  private ResourceStaging(final String id)
+  {
+    this.id = id;
+  }
+
+  // ******************************** Methods *******************************
+
+  // --- init ---------------------------------------------------------------
+
+  // --- get&set ------------------------------------------------------------
+
+  // --- business -----------------------------------------------------------
+
+  /**
+   * Returns the staging strategy identified by the given {@code id}.
+   *
+   * @param id the identifier of the requested staging strategy.
+   * @return the requested staging strategy.
+   * @throws IllegalArgumentException if {@code id} is not a valid staging
+   *           strategy.
+   */
+  public static ResourceStaging fromString(final String id)
+    throws IllegalArgumentException
+  {
+    for (final ResourceStaging staging : values())
+    {
+      if (id.equals(staging.id))
+      {
+        return staging;
+      }
+    }
+
+    throw new IllegalArgumentException(String.format(
+        "Invalid resource staging '%s'. Allowed values are: %s", id,
+        Arrays.toString(values())));
+  }
+
+  /**
+   * Stages the source file as the target file. An existing target file is
+   * removed first so that the contents of a file linked by a previous build
+   * are never overwritten.
+   *
+   * @param source the file to stage.
+   * @param target the staged file.
+   * @return the strategy actually applied. Differs from this strategy if a
+   *         link could not be created.
+   * @throws IOException on any problem staging the file.
+   */
+  public ResourceStaging stage(final File source, final File target)
+    throws IOException
+  {
+    Files.deleteIfExists(target.toPath());
+
+    if (this == HARD_LINK || this == SYMBOLIC_LINK)
+    {
+      try
+      {
+        if (this == HARD_LINK)
+        {
+          Files.createLink(target.toPath(), source.toPath());
+        }
+        else
+        {
+          Files.createSymbolicLink(target.toPath(),
+              source.getAbsoluteFile().toPath());
+        }
+        return this;
+      }
+      catch (final IOException e)
+      {
+        return TRANSFER.stage(source, target);
+      }
+      catch (final UnsupportedOperationException e)
+      {
+        return TRANSFER.stage(source, target);
+      }
+    }
+
+    if (this == TRANSFER)
+    {
+      transfer(source, target);
+    }
+    else
+    {
+      FileUtils.copyFile(source, target);
+    }
+    return this;
+  }
+
+  /**
+   * Finds the symbolic links to files within the given folder. Archivers
+   * store symbolic links as links, so the files they point to have to be
+   * added to an archive explicitly to include their contents.
+   *
+   * @param folder the folder to search.
+   * @return the files the links point to, indexed by the path of the link
+   *         relative to the folder, using <code>/</code> as separator.
+   * @throws IOException on any problem traversing the folder.
+   */
+  public static Map<String, File> findSymbolicLinks(final File folder)
+    throws IOException
+  {
+    final Path root = folder.toPath();
+    final Map<String, File> links = new TreeMap<String, File>();
+    Files.walkFileTree(root, new SimpleFileVisitor<Path>()
+    {
+      @Override
+      public FileVisitResult visitFile(final Path file,
+          final BasicFileAttributes attributes) throws IOException
+      {
+        if (attributes.isSymbolicLink() && Files.isRegularFile(file))
+        {
+          final String path =
+              root.relativize(file).toString().replace(File.separatorChar, '/');
+          links.put(path, file.toRealPath().toFile());
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return links;
+  }
+
+  private static void transfer(final File source, final File target)
+    throws IOException
+  {
+    FileInputStream in = null;
+    FileOutputStream out = null;
+    try
+    {
+      in = new FileInputStream(source);
+      out = new FileOutputStream(target);
+      final FileChannel inChannel = in.getChannel();
+      final FileChannel outChannel = out.getChannel();
+      final long size = inChannel.size();
+      long position = 0;
+      while (position < size)
+      {
+        final long count =
+            inChannel.transferTo(position, size - position, outChannel);
+        if (count <= 0)
+        {
+          break;
+        }
+        position += count;
+      }
+    }
+    finally
+    {
+      IOUtils.closeQuietly(out);
+      IOUtils.closeQuietly(in);
+    }
+
+    if (target.length() != source.length())
+    {
+      throw new IOException(String.format(
+          "Failed to transfer full contents from '%s' to '%s'.", source,
+          target));
+    }
+    target.setLastModified(source.lastModified());
+  }
+
+  // --- object basics ------------------------------------------------------
+
+  @Override
+  public String toString()
+  {
+    return id;
+  }
+}
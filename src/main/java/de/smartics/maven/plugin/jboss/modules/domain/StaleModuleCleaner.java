@@ -0,0 +1,230 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.domain;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.commons.io.FileUtils;
+
+import de.smartics.maven.plugin.jboss.modules.util.Arg;
+
+/**
+ * Removes the modules from the target folder that have been created by a
+ * previous build but not by the current build. These are modules that have
+ * been renamed or removed from the module descriptors or whose slot has
+ * changed since the previous build.
+ * <p>
+ * The folders of the modules of each build are recorded in a file. Only a
+ * folder recorded by the previous build, that is not the folder of a module of
+ * the current build, is removed. Modules added to the target folder by other
+ * means, as well as any files within the folders of modules of the current
+ * build, are not touched.
+ * </p>
+ */
+@NotThreadSafe
+public final class StaleModuleCleaner
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The encoding of the file the module folders are recorded in.
+   */
+  private static final String ENCODING = "UTF-8";
+
+  /**
+   * The name of the descriptor file of a module.
+   */
+  private static final String MODULE_XML = "module.xml";
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The folder the modules are written to.
+   */
+  private final File targetFolder;
+
+  /**
+   * The file to record the folders of the modules of each build in.
+   */
+  private final File modulesFile;
+
+  /**
+   * The paths of the folders of the modules of the current build, relative to
+   * the target folder.
+   */
+  private final Set<String> modules = new TreeSet<String>();
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @param targetFolder the folder the modules are written to.
+   * @param modulesFile the file to record the folders of the modules of each
+   *          build in.
+   * @throws NullPointerException if {@code targetFolder} or
+   *           {@code modulesFile} is <code>null</code>.
+   */
+  public StaleModuleCleaner(final File targetFolder, final File modulesFile)
+    throws NullPointerException
+  {
+    this.targetFolder =
+        Arg.checkNotNull("targetFolder", targetFolder).getAbsoluteFile();
+    this.modulesFile = Arg.checkNotNull("modulesFile", modulesFile);
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Registers a module created by the current build.
+   *
+   * @param moduleFolder the folder of the module.
+   * @throws IllegalArgumentException if {@code moduleFolder} is not located
+   *           within the target folder.
+   */
+  public void addModule(final File moduleFolder)
+    throws IllegalArgumentException
+  {
+    modules.add(calcPath(moduleFolder.getAbsoluteFile()));
+  }
+
+  private String calcPath(final File moduleFolder)
+    throws IllegalArgumentException
+  {
+    final String prefix = targetFolder.getPath() + File.separatorChar;
+    final String path = moduleFolder.getPath();
+    if (!path.startsWith(prefix))
+    {
+      throw new IllegalArgumentException(String.format(
+          "Module folder '%s' is not located within target folder '%s'.",
+          path, targetFolder));
+    }
+    return path.substring(prefix.length()).replace(File.separatorChar, '/');
+  }
+
+  /**
+   * Removes the modules recorded by the previous build that have not been
+   * created by the current build and records the modules of the current
+   * build. Folders left empty by removing stale modules are removed as well.
+   *
+   * @return the removed folders.
+   * @throws IOException on any problem reading or writing the recorded modules
+   *           or removing a folder.
+   */
+  public List<File> clean() throws IOException
+  {
+    final List<File> removed = new ArrayList<File>();
+    for (final String path : readPreviousModules())
+    {
+      if (!modules.contains(path) && !containsModule(path))
+      {
+        final File folder = new File(targetFolder, path);
+        if (new File(folder, MODULE_XML).isFile())
+        {
+          FileUtils.deleteDirectory(folder);
+          removed.add(folder);
+          removeEmptyParents(folder.getParentFile(), removed);
+        }
+      }
+    }
+    writeModules();
+    return removed;
+  }
+
+  private Set<String> readPreviousModules() throws IOException
+  {
+    final Set<String> previous = new TreeSet<String>();
+    if (modulesFile.isFile())
+    {
+      final List<String> lines = FileUtils.readLines(modulesFile, ENCODING);
+      // Ignore the modules of another target folder.
+      if (!lines.isEmpty() && targetFolder.getPath().equals(lines.get(0)))
+      {
+        previous.addAll(lines.subList(1, lines.size()));
+      }
+    }
+    return previous;
+  }
+
+  private boolean containsModule(final String path)
+  {
+    final String prefix = path + '/';
+    for (final String module : modules)
+    {
+      if (module.startsWith(prefix))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void removeEmptyParents(final File folder, final List<File> removed)
+    throws IOException
+  {
+    File current = folder;
+    while (!targetFolder.equals(current) && current.isDirectory())
+    {
+      final String[] names = current.list();
+      if (names == null || names.length > 0)
+      {
+        return;
+      }
+      delete(current);
+      removed.add(current);
+      current = current.getParentFile();
+    }
+  }
+
+  private void writeModules() throws IOException
+  {
+    final List<String> lines = new ArrayList<String>(modules.size() + 1);
+    lines.add(targetFolder.getPath());
+    lines.addAll(modules);
+    FileUtils.writeLines(modulesFile, ENCODING, lines, "\n");
+  }
+
+  private static void delete(final File file) throws IOException
+  {
+    if (!file.delete())
+    {
+      throw new IOException(String.format("Cannot delete '%s'.",
+          file.getAbsolutePath()));
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -75,6 +75,24 @@ public final class DoubleMatchContext implements MatchContext
     this.clusion = clusion;
   }
 
+  /**
+   * Constructor for a successful match with match results.
+   *
+   * @param groupMatchResult the match result to access group information of
+   *          the groupId. May be <code>null</code>.
+   * @param artifactMatchResult the match result to access group information
+   *          of the artifactId. May be <code>null</code>.
+   * @param clusion the matching clusion.
+   */
+  public DoubleMatchContext(final MatchResult groupMatchResult,
+      final MatchResult artifactMatchResult, final ArtifactClusion clusion)
+  {
+    this.result = true;
+    this.groupMatchResult = groupMatchResult;
+    this.artifactMatchResult = artifactMatchResult;
+    this.clusion = clusion;
+  }
+
   // ****************************** Inner Classes *****************************
 
   // ********************************* Methods ********************************
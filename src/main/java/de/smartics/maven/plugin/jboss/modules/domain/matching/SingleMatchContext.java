@@ -30,6 +30,14 @@ public final class SingleMatchContext implements MatchContext
 
   // --- constants ------------------------------------------------------------
 
+  /**
+   * The shared context of a failed match. Since contexts are immutable, the
+   * instance is returned for all failed matches to avoid allocations on the
+   * hot path of matching artifacts.
+   */
+  public static final SingleMatchContext NO_MATCH = new SingleMatchContext(
+      false, null);
+
   // --- members --------------------------------------------------------------
 
   /**
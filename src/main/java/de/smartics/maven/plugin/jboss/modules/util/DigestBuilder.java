@@ -0,0 +1,156 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.util;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+
+/**
+ * Calculates a digest over named values, for instance to detect changes of the
+ * input of a resolution or of the contents of a module.
+ */
+public final class DigestBuilder
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The encoding of the values added to the digest.
+   */
+  private static final String ENCODING = "UTF-8";
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The digest to update with each input.
+   */
+  private final MessageDigest messageDigest;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   */
+  public DigestBuilder()
+  {
+    try
+    {
+      messageDigest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (final NoSuchAlgorithmException e)
+    {
+      throw new IllegalStateException(
+          "SHA-256 not supported on this platform.", e);
+    }
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Adds the named value to the digest.
+   *
+   * @param name the name of the value.
+   * @param value the value to add. May be <code>null</code>.
+   * @return a reference to this builder.
+   */
+  public DigestBuilder add(final String name, final Object value)
+  {
+    update(name + '=' + String.valueOf(value) + '\n');
+    return this;
+  }
+
+  /**
+   * Adds the named dependencies to the digest.
+   *
+   * @param name the name of the dependencies.
+   * @param dependencies the dependencies to add. May be <code>null</code>.
+   * @return a reference to this builder.
+   */
+  public DigestBuilder add(final String name,
+      final Collection<Dependency> dependencies)
+  {
+    update(name + '\n');
+    if (dependencies != null)
+    {
+      for (final Dependency dependency : dependencies)
+      {
+        update(toString(dependency) + '\n');
+      }
+    }
+    return this;
+  }
+
+  private static String toString(final Dependency dependency)
+  {
+    final StringBuilder buffer = new StringBuilder(128);
+    buffer.append(dependency.getArtifact()).append(' ')
+        .append(dependency.getScope()).append(' ')
+        .append(dependency.isOptional());
+    for (final Exclusion exclusion : dependency.getExclusions())
+    {
+      buffer.append(' ').append(exclusion);
+    }
+    return buffer.toString();
+  }
+
+  private void update(final String input)
+  {
+    try
+    {
+      messageDigest.update(input.getBytes(ENCODING));
+    }
+    catch (final UnsupportedEncodingException e)
+    {
+      throw new IllegalStateException(
+          "UTF-8 encoding not supported on this platform.", e);
+    }
+  }
+
+  /**
+   * Returns the digest of all values added so far.
+   *
+   * @return the digest as hexadecimal string.
+   */
+  public String build()
+  {
+    final byte[] bytes = messageDigest.digest();
+    final StringBuilder buffer = new StringBuilder(bytes.length * 2);
+    for (final byte b : bytes)
+    {
+      buffer.append(Character.forDigit((b >> 4) & 0xF, 16)).append(
+          Character.forDigit(b & 0xF, 16));
+    }
+    return buffer.toString();
+  }
+
+  // --- object basics --------------------------------------------------------
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.xml;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+
+/**
+ * Builds a JDOM document from the elements received.
+ */
+@NotThreadSafe
+final class JdomXmlSink implements XmlSink
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The parsed XML fragments to adopt.
+   */
+  private final XmlFragmentTemplates fragmentTemplates;
+
+  /**
+   * The namespace of all elements.
+   */
+  private final Namespace namespace;
+
+  /**
+   * The document built. Is <code>null</code> until the root element is
+   * started.
+   */
+  private Document document;
+
+  /**
+   * The element started last and not yet ended.
+   */
+  private Element current;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @param fragmentTemplates the parsed XML fragments to adopt.
+   * @param namespace the namespace of all elements.
+   */
+  JdomXmlSink(final XmlFragmentTemplates fragmentTemplates,
+      final Namespace namespace)
+  {
+    this.fragmentTemplates = fragmentTemplates;
+    this.namespace = namespace;
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the document built.
+   *
+   * @return the document built.
+   */
+  Document getDocument()
+  {
+    return document;
+  }
+
+  // --- business -------------------------------------------------------------
+
+  @Override
+  public void startElement(final String name)
+  {
+    final Element element = new Element(name, namespace);
+    if (current == null)
+    {
+      document = new Document(element);
+    }
+    else
+    {
+      current.addContent(element);
+    }
+    current = element;
+  }
+
+  @Override
+  public void attribute(final String name, final String value)
+  {
+    current.setAttribute(name, value);
+  }
+
+  @Override
+  public void fragment(final String xmlFragment)
+    throws IllegalArgumentException
+  {
+    current.addContent(fragmentTemplates.adopt(xmlFragment, namespace));
+  }
+
+  @Override
+  public void endElement()
+  {
+    current = current.getParentElement();
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
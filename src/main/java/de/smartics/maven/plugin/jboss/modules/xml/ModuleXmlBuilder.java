@@ -15,20 +15,23 @@
  */
 package de.smartics.maven.plugin.jboss.modules.xml;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Map;
 
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.graph.Dependency;
 import org.jdom2.Document;
-import org.jdom2.Element;
 import org.jdom2.Namespace;
 
 import de.smartics.maven.plugin.jboss.modules.descriptor.ApplyToDependencies;
@@ -37,7 +40,6 @@ import de.smartics.maven.plugin.jboss.modules.descriptor.DependenciesDescriptor;
 import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
 import de.smartics.maven.plugin.jboss.modules.domain.ExecutionContext;
 import de.smartics.maven.plugin.jboss.modules.domain.SlotStrategy;
-import de.smartics.maven.plugin.jboss.modules.util.XmlUtils;
 import java.util.Collections;
 
 /**
@@ -77,19 +79,9 @@ public final class ModuleXmlBuilder
   private final Collection<Dependency> dependencies;
 
   /**
-   * The XML document.
+   * The slot of the module.
    */
-  private final Document document;
-
-  /**
-   * The root element of the document.
-   */
-  private final Element root;
-
-  /**
-   * A helper class to parse XML fragments.
-   */
-  private final XmlFragmentParser xmlFragmentParser = new XmlFragmentParser();
+  private final String slot;
 
   // ****************************** Initializer *******************************
 
@@ -110,14 +102,7 @@ public final class ModuleXmlBuilder
     this.module = module;
     this.dependencies = dependencies;
 
-    root = new Element("module", context.getTargetNamespace());
-    root.setAttribute("name", module.getName());
-    final String slot = calcSlot(context, module, dependencies);
-    if (!SlotStrategy.MAIN_SLOT.equals(slot))
-    {
-      root.setAttribute("slot", slot);
-    }
-    document = new Document(root);
+    this.slot = calcSlot(context, module, dependencies);
   }
 
   // ****************************** Inner Classes *****************************
@@ -193,19 +178,58 @@ public final class ModuleXmlBuilder
     }
   }
 
+  /**
+   * A module dependency, either declared as XML fragment or calculated from a
+   * resolved dependency. Dependencies are equal if they reference the same
+   * module name.
+   */
   private static final class ModuleDependencyElement
   {
-    private final Element moduleElement;
-    private final String  moduleName;
+    /**
+     * The XML fragment declaring the dependency. Is <code>null</code> for
+     * calculated dependencies.
+     */
+    private final String xml;
+
+    /**
+     * The name of the referenced module.
+     */
+    private final String moduleName;
 
-    public ModuleDependencyElement(final Element moduleElement)
+    /**
+     * The attributes of a calculated dependency as alternating names and
+     * values, following the module name.
+     */
+    private final List<String> attributes = new ArrayList<String>(4);
+
+    private ModuleDependencyElement(final String xml, final String moduleName)
     {
-      this.moduleElement = moduleElement;
-      this.moduleName = moduleElement.getAttributeValue("name");
+      this.xml = xml;
+      this.moduleName = moduleName;
     }
 
-    protected Element getModuleElement() {
-      return this.moduleElement;
+    private void setAttribute(final String name, final String value)
+    {
+      attributes.add(name);
+      attributes.add(value);
+    }
+
+    private void write(final XmlSink sink)
+    {
+      if (xml != null)
+      {
+        sink.fragment(xml);
+      }
+      else
+      {
+        sink.startElement("module");
+        sink.attribute("name", moduleName);
+        for (int i = 0; i < attributes.size(); i += 2)
+        {
+          sink.attribute(attributes.get(i), attributes.get(i + 1));
+        }
+        sink.endElement();
+      }
     }
 
     @Override
@@ -270,26 +294,82 @@ public final class ModuleXmlBuilder
    */
   public Document build()
   {
-    addMainClass(module);
-    addProperties(module);
-    addResources(module, dependencies);
-    addDependencies(module, dependencies);
-    addExports(module);
+    final JdomXmlSink sink =
+        new JdomXmlSink(context.getFragmentTemplates(),
+            context.getTargetNamespace());
+    build(sink);
+    return sink.getDocument();
+  }
 
-    return document;
+  /**
+   * Writes the document in pretty format without building it in memory. The
+   * output is identical to the output of the document returned by
+   * {@link #build()} written with
+   * {@link org.jdom2.output.Format#getPrettyFormat() pretty format}.
+   *
+   * @param out the stream to write to. The stream is flushed, but not closed.
+   * @return <code>true</code> if the document has been written,
+   *         <code>false</code> if the document contains XML fragments that
+   *         cannot be written without building the document in memory. In this
+   *         case the stream contains a partially written document.
+   * @throws IOException if the document cannot be written.
+   */
+  public boolean write(final OutputStream out) throws IOException
+  {
+    try
+    {
+      final StreamingXmlSink sink =
+          new StreamingXmlSink(context.getFragmentTemplates(),
+              context.getTargetNamespace(), new BufferedWriter(
+                  new OutputStreamWriter(out, "UTF-8")));
+      try
+      {
+        build(sink);
+        return true;
+      }
+      catch (final StreamingXmlSink.UnsupportedContentException e)
+      {
+        return false;
+      }
+      finally
+      {
+        sink.flush();
+      }
+    }
+    catch (final UncheckedIOException e)
+    {
+      throw e.getCause();
+    }
   }
 
-  private void addMainClass(final ModuleDescriptor module)
+  private void build(final XmlSink sink)
+  {
+    sink.startElement("module");
+    sink.attribute("name", module.getName());
+    if (!SlotStrategy.MAIN_SLOT.equals(slot))
+    {
+      sink.attribute("slot", slot);
+    }
+
+    addMainClass(sink, module);
+    addProperties(sink, module);
+    addResources(sink, module, dependencies);
+    addDependencies(sink, module, dependencies);
+    addExports(sink, module);
+
+    sink.endElement();
+  }
+
+  private void addMainClass(final XmlSink sink, final ModuleDescriptor module)
   {
     final String xml = module.getApplyToModule().getMainClassXml();
     if (xml != null)
     {
-      final Element element = adopt(xml);
-      root.addContent(element);
+      sink.fragment(xml);
     }
   }
 
-  private void addProperties(final ModuleDescriptor module)
+  private void addProperties(final XmlSink sink, final ModuleDescriptor module)
   {
     final List<String> xmls = module.getApplyToModule().getPropertiesXml();
     if (xmls.isEmpty())
@@ -297,63 +377,51 @@ public final class ModuleXmlBuilder
       return;
     }
 
-    final Element propertiesElement = new Element("properties", context.getTargetNamespace());
+    sink.startElement("properties");
     for (final String xml : xmls)
     {
-      final Element element = adopt(xml);
-      propertiesElement.addContent(element);
+      sink.fragment(xml);
     }
-    root.addContent(propertiesElement);
+    sink.endElement();
   }
 
-  private void addResources(ModuleDescriptor module, final Collection<Dependency> dependencies)
+  private void addResources(final XmlSink sink, ModuleDescriptor module, final Collection<Dependency> dependencies)
   {
-    final Element resources = new Element("resources", context.getTargetNamespace());
-
     List<String> resourceRootsXml = module.getApplyToModule().getResourceRootsXml();
-    for (final String xml : resourceRootsXml)
+    final List<SortElement> sorted = dependencies.isEmpty()
+        ? Collections.<SortElement> emptyList()
+        : createSortedResources(dependencies);
+    if (resourceRootsXml.isEmpty() && sorted.isEmpty())
     {
-      final Element element = adopt(xml);
-      resources.addContent(element);
+      return;
     }
 
-    if (!dependencies.isEmpty())
+    sink.startElement("resources");
+    for (final String xml : resourceRootsXml)
     {
+      sink.fragment(xml);
+    }
 
-      final List<SortElement> sorted = createSortedResources(dependencies);
-      for (final SortElement element : sorted)
+    for (final SortElement element : sorted)
+    {
+      final Artifact depart = element.dependency.getArtifact();
+      if (context.isGenerateFeaturePackDefinition())
       {
-        final Artifact depart = element.dependency.getArtifact();
-        if (context.isGenerateFeaturePackDefinition())
-        {
-            final Element artifact = new Element("artifact", context.getTargetNamespace());
-            artifact.setAttribute("name", "${" + depart.getGroupId() + ":" + depart.getArtifactId() + "}");
-
-            String filter = module.getMatcher().findFilter(depart);
-            if (filter != null) {
-              final Element filterElement = adopt(filter);
-              artifact.addContent(filterElement);
-            }
-
-            resources.addContent(artifact);
-        } else {
-            final Element resource = new Element("resource-root", context.getTargetNamespace());
-            final String fileName = depart.getFile().getName();
-            resource.setAttribute("path", fileName);
-
-            String filter = module.getMatcher().findFilter(depart);
-            if (filter != null) {
-              final Element filterElement = adopt(filter);
-              resource.addContent(filterElement);
-            }
-            resources.addContent(resource);
-        }
+          sink.startElement("artifact");
+          sink.attribute("name", "${" + depart.getGroupId() + ":" + depart.getArtifactId() + "}");
+      } else {
+          sink.startElement("resource-root");
+          sink.attribute("path", depart.getFile().getName());
       }
-    }
 
-    if( !resources.getChildren().isEmpty() ) {
-        root.addContent(resources);
+      String filter =
+          context.getModuleMap().findFilter(module, element.dependency);
+      if (filter != null) {
+        sink.fragment(filter);
+      }
+      sink.endElement();
     }
+    sink.endElement();
   }
 
   private List<SortElement> createSortedResources(
@@ -370,19 +438,32 @@ public final class ModuleXmlBuilder
         final String sortKey = file.getName() + ":"+ dependency.getArtifact().getGroupId();
         sorted.add(new SortElement(sortKey, dependency));
       }
+      else if (context.isGenerateFeaturePackDefinition())
+      {
+        final String sortKey = createFileName(artifact) + ":"+ artifact.getGroupId();
+        sorted.add(new SortElement(sortKey, dependency));
+      }
     }
     Collections.sort(sorted);
     return sorted;
   }
 
-  private void addDependencies(final ModuleDescriptor module,
+  private static String createFileName(final Artifact artifact)
+  {
+    final String classifier = artifact.getClassifier();
+    return artifact.getArtifactId() + '-' + artifact.getBaseVersion()
+           + (StringUtils.isBlank(classifier) ? "" : '-' + classifier) + '.'
+           + artifact.getExtension();
+  }
+
+  private void addDependencies(final XmlSink sink, final ModuleDescriptor module,
       final Collection<Dependency> dependencies)
   {
     final ApplyToModule applyToModule = module.getApplyToModule();
     final List<String> staticDependencies = applyToModule.getDependenciesXml();
     if (!(dependencies.isEmpty() && staticDependencies.isEmpty()))
     {
-      final Element dependenciesElement = new Element("dependencies", context.getTargetNamespace());
+      sink.startElement("dependencies");
 
       final List<ModuleDependencyElement> staticDependencyElements = getStaticDependencyElements(staticDependencies);
       final List<ModuleDependencyElement> resolvedDependencyElements = getResolvedDependencyElements(module, dependencies);
@@ -396,17 +477,17 @@ public final class ModuleXmlBuilder
       // Add <module> content to <dependencies> element
       for(ModuleDependencyElement element : combinedDependencies)
       {
-        dependenciesElement.addContent(element.getModuleElement());
+        element.write(sink);
       }
 
-      root.addContent(dependenciesElement);
+      sink.endElement();
     }
   }
 
   private List<ModuleDependencyElement> getResolvedDependencyElements(final ModuleDescriptor module,
       final Collection<Dependency> dependencies)
   {
-    final Set<SortElement> sorted =
+    final List<SortElement> sorted =
         createSortedDependencies(module, dependencies);
 
     final ApplyToDependencies apply = module.getApplyToDependencies();
@@ -416,8 +497,8 @@ public final class ModuleXmlBuilder
     for (final SortElement element : sorted)
     {
       final String name = element.key;
-      final Element moduleElement = new Element("module", context.getTargetNamespace());
-      moduleElement.setAttribute("name", name);
+      final ModuleDependencyElement moduleElement =
+          new ModuleDependencyElement(null, name);
 
       final DependenciesDescriptor dd = apply.getDescriptorThatMatches(name);
 
@@ -427,7 +508,7 @@ public final class ModuleXmlBuilder
         handleExport(moduleElement, dd);
         handleServices(moduleElement, dd);
         handleSlot(module, element, moduleElement);
-        moduleDependencyElements.add(new ModuleDependencyElement(moduleElement));
+        moduleDependencyElements.add(moduleElement);
       }
     }
 
@@ -457,7 +538,7 @@ public final class ModuleXmlBuilder
   }
 
   private void handleOptional(final SortElement element,
-      final Element moduleElement, final DependenciesDescriptor dd)
+      final ModuleDependencyElement moduleElement, final DependenciesDescriptor dd)
   {
     final Boolean ddOptional = dd.getOptional();
     if ((ddOptional != null && ddOptional)
@@ -467,7 +548,7 @@ public final class ModuleXmlBuilder
     }
   }
 
-  private void handleExport(final Element moduleElement,
+  private void handleExport(final ModuleDependencyElement moduleElement,
       final DependenciesDescriptor dd)
   {
     final Boolean ddExport = dd.getExport();
@@ -477,7 +558,7 @@ public final class ModuleXmlBuilder
     }
   }
 
-  private void handleServices(final Element moduleElement,
+  private void handleServices(final ModuleDependencyElement moduleElement,
       final DependenciesDescriptor dd)
   {
     final String services = dd.getServices();
@@ -488,7 +569,7 @@ public final class ModuleXmlBuilder
   }
 
   private void handleSlot(final ModuleDescriptor module,
-      final SortElement element, final Element moduleElement)
+      final SortElement element, final ModuleDependencyElement moduleElement)
   {
     final SlotStrategy slotStrategy = context.getSlotStrategy();
     final Dependency dependency = element.dependency;
@@ -501,15 +582,19 @@ public final class ModuleXmlBuilder
     }
   }
 
-  private Set<SortElement> createSortedDependencies(
+  private List<SortElement> createSortedDependencies(
       final ModuleDescriptor module, final Collection<Dependency> dependencies)
   {
-    final Set<SortElement> sorted = new TreeSet<SortElement>();
+    final Map<String, SortElement> elements =
+        new HashMap<String, SortElement>();
     for (final Dependency dependency : dependencies)
     {
       final List<Dependency> resolvedDependencies = context.resolve(dependency);
-      addSortedDependencies(sorted, module, resolvedDependencies);
+      addSortedDependencies(elements, module, resolvedDependencies);
     }
+    final List<SortElement> sorted =
+        new ArrayList<SortElement>(elements.values());
+    Collections.sort(sorted);
     return sorted;
   }
 
@@ -546,7 +631,11 @@ public final class ModuleXmlBuilder
     {
       for (final String xml : staticDependencies)
       {
-        final ModuleDependencyElement element = new ModuleDependencyElement(adopt(xml));
+        final String name = context.getFragmentTemplates()
+            .getTemplate(xml, context.getTargetNamespace())
+            .getAttributeValue("name");
+        final ModuleDependencyElement element =
+            new ModuleDependencyElement(xml, name);
         moduleElements.add(element);
       }
     }
@@ -556,7 +645,7 @@ public final class ModuleXmlBuilder
 
   // CHECKSTYLE:ON
 
-  private void addSortedDependencies(final Set<SortElement> sorted,
+  private void addSortedDependencies(final Map<String, SortElement> elements,
       final ModuleDescriptor owningModule, final List<Dependency> dependencies)
   {
     for (final Dependency dependency : dependencies)
@@ -574,24 +663,12 @@ public final class ModuleXmlBuilder
            *
            * In this scenario, always assume that the dependency should be mandatory.
            */
-          final SortElement e = new SortElement(name, dependency);
-          if(sorted.contains(e))
+          final SortElement current = elements.get(name);
+          if (current == null
+              || (current.dependency.isOptional() && !dependency.isOptional()))
           {
-            final Iterator<SortElement> iter = sorted.iterator();
-            while (iter.hasNext())
-            {
-              final SortElement current = iter.next();
-
-              // We are processing a non-optional dependency that has already been added to the set as optional
-              if(current.equals(e) && current.dependency.isOptional() && !dependency.isOptional())
-              {
-                // Remove so that it can be replaced later with a non-optional dependency
-                sorted.remove(current);
-                break;
-              }
-            }
+            elements.put(name, new SortElement(name, dependency));
           }
-          sorted.add(e);
         }
       }
       catch (final IllegalArgumentException e)
@@ -604,22 +681,15 @@ public final class ModuleXmlBuilder
     }
   }
 
-  private void addExports(final ModuleDescriptor module2)
+  private void addExports(final XmlSink sink, final ModuleDescriptor module2)
   {
     final String xml = module.getApplyToModule().getExportsXml();
     if (xml != null)
     {
-      final Element element = adopt(xml);
-      root.addContent(element);
+      sink.fragment(xml);
     }
   }
 
-  private Element adopt(String xml) {
-    final Element element = xmlFragmentParser.parse(xml);
-    XmlUtils.adjustNamespaces(element, context.getTargetNamespace());
-    return element;
-  }
-
   // --- object basics --------------------------------------------------------
 
 }
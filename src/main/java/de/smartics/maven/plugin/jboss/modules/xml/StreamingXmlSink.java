@@ -0,0 +1,417 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.xml;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.jdom2.Attribute;
+import org.jdom2.CDATA;
+import org.jdom2.Comment;
+import org.jdom2.Content;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.Text;
+import org.jdom2.output.Format;
+
+/**
+ * Writes the elements received directly to a character stream. The output is
+ * identical to the output of {@link org.jdom2.output.XMLOutputter} with
+ * {@link org.jdom2.output.Format#getPrettyFormat() pretty format} for the
+ * document the {@link JdomXmlSink} would have built.
+ * <p>
+ * XML fragments are written from their templates without copying them.
+ * Fragments with mixed content, CDATA sections, processing instructions,
+ * entity references or namespaced attributes are not supported. In this case
+ * an {@link UnsupportedContentException} is thrown before any part of the
+ * fragment is written.
+ * </p>
+ */
+@NotThreadSafe
+final class StreamingXmlSink implements XmlSink
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The line separator used by the pretty format. JDOM allows to change the
+   * default by a system property.
+   */
+  private final String lineSeparator;
+
+  /**
+   * The indentation per level used by the pretty format.
+   */
+  private final String indent;
+
+  /**
+   * The parsed XML fragments to write.
+   */
+  private final XmlFragmentTemplates fragmentTemplates;
+
+  /**
+   * The namespace of all elements.
+   */
+  private final Namespace namespace;
+
+  /**
+   * The stream to write to.
+   */
+  private final Writer out;
+
+  /**
+   * The qualified names of the started elements not yet ended.
+   */
+  private final Deque<String> openElements = new ArrayDeque<String>();
+
+  /**
+   * The flag signals that the start tag of the element started last has not
+   * been closed, since attributes may still be added.
+   */
+  private boolean startTagOpen;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor. Writes the XML declaration.
+   *
+   * @param fragmentTemplates the parsed XML fragments to write.
+   * @param namespace the namespace of all elements.
+   * @param out the stream to write to in UTF-8 encoding.
+   * @throws UncheckedIOException if the declaration cannot be written.
+   */
+  StreamingXmlSink(final XmlFragmentTemplates fragmentTemplates,
+      final Namespace namespace, final Writer out) throws UncheckedIOException
+  {
+    this.fragmentTemplates = fragmentTemplates;
+    this.namespace = namespace;
+    this.out = out;
+    final Format format = Format.getPrettyFormat();
+    this.lineSeparator = format.getLineSeparator();
+    this.indent = format.getIndent();
+    write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+    write(lineSeparator);
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Signals a fragment that cannot be written identically to the pretty format.
+   */
+  static final class UnsupportedContentException extends RuntimeException
+  {
+    /**
+     * The class version identifier.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private UnsupportedContentException(final String message)
+    {
+      super(message);
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  @Override
+  public void startElement(final String name)
+  {
+    closeStartTag();
+    final String prefix = namespace.getPrefix();
+    final String qualifiedName =
+        prefix.length() == 0 ? name : prefix + ':' + name;
+    indent();
+    write("<");
+    write(qualifiedName);
+    if (openElements.isEmpty() && namespace != Namespace.NO_NAMESPACE)
+    {
+      write(prefix.length() == 0 ? " xmlns" : " xmlns:" + prefix);
+      write("=\"");
+      writeEscaped(namespace.getURI(), true);
+      write("\"");
+    }
+    openElements.push(qualifiedName);
+    startTagOpen = true;
+  }
+
+  @Override
+  public void attribute(final String name, final String value)
+  {
+    write(" ");
+    write(name);
+    write("=\"");
+    writeEscaped(value, true);
+    write("\"");
+  }
+
+  @Override
+  public void fragment(final String xmlFragment)
+    throws IllegalArgumentException, UnsupportedContentException
+  {
+    final Element template =
+        fragmentTemplates.getTemplate(xmlFragment, namespace);
+    checkSupported(template);
+    writeElement(template);
+  }
+
+  @Override
+  public void endElement()
+  {
+    final String qualifiedName = openElements.pop();
+    if (startTagOpen)
+    {
+      write(" />");
+      startTagOpen = false;
+    }
+    else
+    {
+      indent();
+      write("</");
+      write(qualifiedName);
+      write(">");
+    }
+    write(lineSeparator);
+  }
+
+  /**
+   * Flushes the stream.
+   *
+   * @throws UncheckedIOException if the stream cannot be flushed.
+   */
+  void flush() throws UncheckedIOException
+  {
+    try
+    {
+      out.flush();
+    }
+    catch (final IOException e)
+    {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void checkSupported(final Element element)
+    throws UnsupportedContentException
+  {
+    for (final Attribute attribute : element.getAttributes())
+    {
+      if (attribute.getNamespace() != Namespace.NO_NAMESPACE)
+      {
+        throw new UnsupportedContentException("Namespaced attribute '"
+                                              + attribute.getQualifiedName()
+                                              + "'.");
+      }
+    }
+
+    boolean hasMarkup = false;
+    boolean hasText = false;
+    for (final Content content : element.getContent())
+    {
+      if (content instanceof Element)
+      {
+        hasMarkup = true;
+        checkSupported((Element) content);
+      }
+      else if (content instanceof Comment)
+      {
+        hasMarkup = true;
+      }
+      else if (content instanceof Text && !(content instanceof CDATA))
+      {
+        hasText |= trim(((Text) content).getText()).length() > 0;
+      }
+      else
+      {
+        throw new UnsupportedContentException("Content of type '"
+                                              + content.getCType() + "'.");
+      }
+    }
+    if (hasMarkup && hasText)
+    {
+      throw new UnsupportedContentException("Mixed content in element '"
+                                            + element.getName() + "'.");
+    }
+  }
+
+  private void writeElement(final Element element)
+  {
+    startElement(element.getName());
+    for (final Attribute attribute : element.getAttributes())
+    {
+      attribute(attribute.getName(), attribute.getValue());
+    }
+
+    final String text = trim(element.getText());
+    if (text.length() > 0)
+    {
+      write(">");
+      writeEscaped(text, false);
+      write("</");
+      write(openElements.pop());
+      write(">");
+      write(lineSeparator);
+      startTagOpen = false;
+      return;
+    }
+
+    for (final Content content : element.getContent())
+    {
+      if (content instanceof Element)
+      {
+        writeElement((Element) content);
+      }
+      else if (content instanceof Comment)
+      {
+        closeStartTag();
+        indent();
+        write("<!--");
+        write(((Comment) content).getText());
+        write("-->");
+        write(lineSeparator);
+      }
+    }
+    endElement();
+  }
+
+  private void closeStartTag()
+  {
+    if (startTagOpen)
+    {
+      write(">");
+      write(lineSeparator);
+      startTagOpen = false;
+    }
+  }
+
+  private void indent()
+  {
+    for (int i = openElements.size(); i > 0; i--)
+    {
+      write(indent);
+    }
+  }
+
+  /**
+   * Removes the whitespace characters recognized by XML from both ends.
+   */
+  private static String trim(final String text)
+  {
+    int start = 0;
+    int end = text.length();
+    while (start < end && isXmlWhitespace(text.charAt(start)))
+    {
+      start++;
+    }
+    while (end > start && isXmlWhitespace(text.charAt(end - 1)))
+    {
+      end--;
+    }
+    return text.substring(start, end);
+  }
+
+  private static boolean isXmlWhitespace(final char ch)
+  {
+    return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r';
+  }
+
+  private void writeEscaped(final String value, final boolean attribute)
+  {
+    final int length = value.length();
+    int start = 0;
+    for (int i = 0; i < length; i++)
+    {
+      final char ch = value.charAt(i);
+      final String replacement =
+          ch == '\n' && !attribute ? lineSeparator : escape(ch, attribute);
+      if (replacement != null)
+      {
+        write(value, start, i);
+        write(replacement);
+        start = i + 1;
+      }
+    }
+    write(value, start, length);
+  }
+
+  private static String escape(final char ch, final boolean attribute)
+  {
+    switch (ch)
+    {
+      case '&':
+        return "&amp;";
+      case '<':
+        return "&lt;";
+      case '>':
+        return "&gt;";
+      case '\r':
+        return "&#xD;";
+      case '"':
+        return attribute ? "&quot;" : null;
+      case '\t':
+        return attribute ? "&#x9;" : null;
+      case '\n':
+        return "&#xA;";
+      default:
+        return null;
+    }
+  }
+
+  private void write(final String value)
+  {
+    try
+    {
+      out.write(value);
+    }
+    catch (final IOException e)
+    {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void write(final String value, final int start, final int end)
+  {
+    if (start < end)
+    {
+      try
+      {
+        out.write(value, start, end - start);
+      }
+      catch (final IOException e)
+      {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
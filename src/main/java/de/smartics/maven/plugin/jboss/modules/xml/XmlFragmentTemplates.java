@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.xml;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+
+import de.smartics.maven.plugin.jboss.modules.util.XmlUtils;
+
+/**
+ * Provides XML fragments as elements to be added to a document. Each fragment
+ * is parsed once per target namespace into a template with adjusted
+ * namespaces. The templates are never handed out, callers receive clones.
+ */
+@ThreadSafe
+public final class XmlFragmentTemplates
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The templates indexed by target namespace and XML fragment.
+   */
+  private final ConcurrentMap<Namespace, ConcurrentMap<String, Element>> templates =
+      new ConcurrentHashMap<Namespace, ConcurrentMap<String, Element>>();
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Creates the templates of a namespace.
+   */
+  private static final class TemplateFactory implements
+      Function<String, Element>
+  {
+    /**
+     * The namespace to adjust the templates to.
+     */
+    private final Namespace namespace;
+
+    private TemplateFactory(final Namespace namespace)
+    {
+      this.namespace = namespace;
+    }
+
+    @Override
+    public Element apply(final String xmlFragment)
+    {
+      final Element element = new XmlFragmentParser().parse(xmlFragment);
+      XmlUtils.adjustNamespaces(element, namespace);
+      return element;
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Returns the element for the given XML fragment with all elements in the
+   * given namespace.
+   *
+   * @param xmlFragment the fragment to create the element for.
+   * @param namespace the namespace of the elements.
+   * @return a detached element to be added to a document.
+   * @throws IllegalArgumentException if the fragment cannot be parsed.
+   */
+  public Element adopt(final String xmlFragment, final Namespace namespace)
+    throws IllegalArgumentException
+  {
+    return getTemplate(xmlFragment, namespace).clone();
+  }
+
+  /**
+   * Returns the template for the given XML fragment with all elements in the
+   * given namespace. The template must not be modified.
+   *
+   * @param xmlFragment the fragment to return the template for.
+   * @param namespace the namespace of the elements.
+   * @return the template shared by all callers.
+   * @throws IllegalArgumentException if the fragment cannot be parsed.
+   */
+  Element getTemplate(final String xmlFragment, final Namespace namespace)
+    throws IllegalArgumentException
+  {
+    ConcurrentMap<String, Element> namespaceTemplates = templates.get(namespace);
+    if (namespaceTemplates == null)
+    {
+      templates.putIfAbsent(namespace,
+          new ConcurrentHashMap<String, Element>());
+      namespaceTemplates = templates.get(namespace);
+    }
+
+    return namespaceTemplates.computeIfAbsent(xmlFragment,
+        new TemplateFactory(namespace));
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
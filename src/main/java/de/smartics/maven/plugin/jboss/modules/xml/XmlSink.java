@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.smartics.maven.plugin.jboss.modules.xml;
+
+/**
+ * Receives the elements of a <code>module.xml</code> descriptor in document
+ * order.
+ */
+interface XmlSink
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Starts an element in the target namespace as child of the current
+   * element.
+   *
+   * @param name the local name of the element.
+   */
+  void startElement(String name);
+
+  /**
+   * Adds an attribute to the element started last.
+   *
+   * @param name the name of the attribute.
+   * @param value the value of the attribute.
+   */
+  void attribute(String name, String value);
+
+  /**
+   * Adds the XML fragment as child of the current element.
+   *
+   * @param xmlFragment the fragment to add.
+   * @throws IllegalArgumentException if the fragment cannot be parsed.
+   */
+  void fragment(String xmlFragment) throws IllegalArgumentException;
+
+  /**
+   * Ends the current element.
+   */
+  void endElement();
+
+  // --- object basics --------------------------------------------------------
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.aether;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryException;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.collection.DependencyGraphTransformationContext;
+import org.eclipse.aether.graph.DefaultDependencyNode;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.util.graph.transformer.ConflictResolver;
+import org.eclipse.aether.util.graph.transformer.JavaScopeDeriver;
+import org.eclipse.aether.util.graph.transformer.JavaScopeSelector;
+import org.eclipse.aether.util.graph.transformer.NearestVersionSelector;
+import org.eclipse.aether.util.graph.transformer.SimpleOptionalitySelector;
+import org.eclipse.aether.util.graph.traverser.StaticDependencyTraverser;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.aether.DependencyGraph;
+import de.smartics.maven.plugin.jboss.modules.aether.FilterSession;
+import de.smartics.maven.plugin.jboss.modules.aether.MavenResponse;
+import de.smartics.maven.plugin.jboss.modules.aether.filter.DependencyFlagger;
+
+/**
+ * Tests {@link DependencyGraph}.
+ */
+public class DependencyGraphTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  private Dependency one;
+
+  private Dependency two;
+
+  private Dependency three;
+
+  private DependencyGraph uut;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp()
+  {
+    one = createDependency("one", true);
+    two = createDependency("two", true);
+    three = createDependency("three", false);
+
+    final DefaultDependencyNode root =
+        new DefaultDependencyNode((Dependency) null);
+    final DefaultDependencyNode nodeOne = new DefaultDependencyNode(one);
+    final DefaultDependencyNode nodeTwo = new DefaultDependencyNode(two);
+    final DefaultDependencyNode nodeThree = new DefaultDependencyNode(three);
+    root.getChildren().add(nodeOne);
+    nodeOne.getChildren().add(nodeTwo);
+    nodeOne.getChildren().add(nodeThree);
+
+    uut = DependencyGraph.create(root);
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private static Dependency createDependency(final String artifactId,
+      final boolean resolved)
+  {
+    return createDependency(artifactId, "1.0", resolved);
+  }
+
+  private static Dependency createDependency(final String artifactId,
+      final String version, final boolean resolved)
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId("de.smartics.test");
+    builder.withArtifactId(artifactId);
+    builder.withVersion(version);
+    Artifact artifact = builder.build();
+    if (resolved)
+    {
+      artifact = artifact.setFile(new File(artifactId + ".jar"));
+    }
+    return new Dependency(artifact, "compile");
+  }
+
+  private static DefaultDependencyNode createNode(final Dependency dependency)
+    throws InvalidVersionSpecificationException
+  {
+    final GenericVersionScheme scheme = new GenericVersionScheme();
+    final String version = dependency.getArtifact().getVersion();
+    final DefaultDependencyNode node = new DefaultDependencyNode(dependency);
+    node.setVersion(scheme.parseVersion(version));
+    node.setVersionConstraint(scheme.parseVersionConstraint(version));
+    return node;
+  }
+
+  private static void resolveConflicts(final DependencyNode root)
+    throws RepositoryException
+  {
+    final DefaultRepositorySystemSession session =
+        new DefaultRepositorySystemSession();
+    session.setDependencyGraphTransformer(new ConflictResolver(
+        new NearestVersionSelector(), new JavaScopeSelector(),
+        new SimpleOptionalitySelector(), new JavaScopeDeriver()));
+    final FilterSession filterSession =
+        new FilterSession(session, new StaticDependencyTraverser(true), false);
+    final Map<Object, Object> data = new HashMap<Object, Object>();
+    filterSession.getDependencyGraphTransformer().transformGraph(root,
+        new DependencyGraphTransformationContext()
+        {
+          @Override
+          public RepositorySystemSession getSession()
+          {
+            return filterSession;
+          }
+
+          @Override
+          public Object get(final Object key)
+          {
+            return data.get(key);
+          }
+
+          @Override
+          public Object put(final Object key, final Object value)
+          {
+            return data.put(key, value);
+          }
+        });
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void indexesAllNodesWithDependencies()
+  {
+    assertThat(uut.size(), is(3));
+  }
+
+  @Test
+  public void derivesDirectDependenciesFromChildrenSkippingUnresolved()
+  {
+    final MavenResponse response = uut.resolveDirect(one);
+    assertThat(response.getDependencies(), contains(one, two));
+  }
+
+  @Test
+  public void includesUnresolvedDependenciesOfCollectedGraph()
+  {
+    final DefaultDependencyNode root =
+        new DefaultDependencyNode((Dependency) null);
+    final DefaultDependencyNode nodeThree = new DefaultDependencyNode(three);
+    final DefaultDependencyNode nodeFour =
+        new DefaultDependencyNode(createDependency("four", false));
+    root.getChildren().add(nodeThree);
+    nodeThree.getChildren().add(nodeFour);
+
+    final DependencyGraph graph =
+        DependencyGraph.create(root, new DependencyFlagger(), true);
+    final MavenResponse response = graph.resolveDirect(three);
+    assertThat(response.getDependencies(),
+        contains(three, nodeFour.getDependency()));
+  }
+
+  @Test
+  public void returnsNullForArtifactsNotInGraph()
+  {
+    final Dependency unknown = createDependency("unknown", true);
+    assertThat(uut.resolveDirect(unknown), is(nullValue()));
+  }
+
+  @Test
+  public void reportsArtifactReachedFromSeveralParentsForEachParent()
+    throws RepositoryException
+  {
+    final Dependency four = createDependency("four", true);
+    final Dependency shared = createDependency("shared", true);
+    final DefaultDependencyNode root =
+        new DefaultDependencyNode((Dependency) null);
+    final DefaultDependencyNode nodeOne = createNode(one);
+    final DefaultDependencyNode nodeFour = createNode(four);
+    root.getChildren().add(nodeOne);
+    root.getChildren().add(nodeFour);
+    nodeOne.getChildren().add(createNode(shared));
+    nodeFour.getChildren().add(createNode(shared));
+
+    resolveConflicts(root);
+    final DependencyGraph graph = DependencyGraph.create(root);
+
+    assertThat(nodeFour.getChildren().isEmpty(), is(true));
+    assertThat(graph.resolveDirect(one).getDependencies(),
+        contains(one, shared));
+    assertThat(graph.resolveDirect(four).getDependencies(),
+        contains(four, shared));
+  }
+
+  @Test
+  public void returnsNullIfChildLostVersionConflict()
+    throws RepositoryException
+  {
+    final Dependency four = createDependency("four", true);
+    final DefaultDependencyNode root =
+        new DefaultDependencyNode((Dependency) null);
+    final DefaultDependencyNode nodeOne = createNode(one);
+    final DefaultDependencyNode nodeFour = createNode(four);
+    root.getChildren().add(nodeOne);
+    root.getChildren().add(nodeFour);
+    nodeOne.getChildren().add(
+        createNode(createDependency("shared", "1.0", true)));
+    nodeFour.getChildren().add(
+        createNode(createDependency("shared", "2.0", true)));
+
+    resolveConflicts(root);
+    final DependencyGraph graph = DependencyGraph.create(root);
+
+    assertThat(graph.resolveDirect(one).getDependencies().size(), is(2));
+    assertThat(graph.resolveDirect(four), is(nullValue()));
+  }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.aether;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.collection.CollectResult;
+import org.eclipse.aether.collection.DependencyCollectionException;
+import org.eclipse.aether.collection.DependencyTraverser;
+import org.eclipse.aether.graph.DefaultDependencyNode;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.util.graph.traverser.StaticDependencyTraverser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.smartics.maven.plugin.jboss.modules.aether.DependencyCallback;
+import de.smartics.maven.plugin.jboss.modules.aether.DependencyTraverserGenerator;
+import de.smartics.maven.plugin.jboss.modules.aether.MavenRepository;
+import de.smartics.maven.plugin.jboss.modules.aether.MavenResponse;
+import de.smartics.maven.plugin.jboss.modules.aether.MojoRepositoryBuilder;
+
+/**
+ * Tests the parallel resolution of artifacts by {@link MavenRepository}
+ * against a file based stand-in repository.
+ */
+public class MavenRepositoryParallelResolutionTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The artifactId of the dependency whose graph is only partially collected.
+   */
+  private static final String PARTIAL = "partial";
+
+  // --- members --------------------------------------------------------------
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final AtomicInteger batchCount = new AtomicInteger();
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+  private MavenRepository uut;
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Collects the root dependencies as a flat graph and resolves artifacts from
+   * the files in the temporary folder.
+   */
+  private final class FileRepositorySystem implements InvocationHandler
+  {
+    @Override
+    public Object invoke(final Object proxy, final Method method,
+        final Object[] args) throws Throwable
+    {
+      if ("collectDependencies".equals(method.getName()))
+      {
+        return collect((CollectRequest) args[1]);
+      }
+      if ("resolveArtifacts".equals(method.getName()))
+      {
+        @SuppressWarnings("unchecked")
+        final Collection<ArtifactRequest> requests =
+            (Collection<ArtifactRequest>) args[1];
+        return resolve(requests);
+      }
+      throw new UnsupportedOperationException(method.getName());
+    }
+
+    private CollectResult collect(final CollectRequest request)
+      throws DependencyCollectionException
+    {
+      final DefaultDependencyNode root =
+          new DefaultDependencyNode(request.getRoot());
+      for (final Dependency dependency : request.getDependencies())
+      {
+        root.getChildren().add(new DefaultDependencyNode(dependency));
+      }
+      final CollectResult result = new CollectResult(request).setRoot(root);
+      if (request.getRoot() != null
+          && PARTIAL.equals(request.getRoot().getArtifact().getArtifactId()))
+      {
+        final DefaultDependencyNode nodeA = createNode("a");
+        nodeA.getChildren().add(createNode("deep"));
+        root.getChildren().add(nodeA);
+        root.getChildren().add(createNode("b"));
+        result.addException(new IllegalStateException("Cannot read POM."));
+        throw new DependencyCollectionException(result);
+      }
+      return result;
+    }
+
+    private DefaultDependencyNode createNode(final String id)
+    {
+      return new DefaultDependencyNode(createDependencies(id).get(0));
+    }
+
+    private List<ArtifactResult> resolve(
+        final Collection<ArtifactRequest> requests)
+      throws ArtifactResolutionException
+    {
+      batchCount.incrementAndGet();
+      final List<ArtifactResult> results = new ArrayList<ArtifactResult>();
+      boolean failed = false;
+      for (final ArtifactRequest request : requests)
+      {
+        final ArtifactResult result = new ArtifactResult(request);
+        final Artifact artifact = request.getArtifact();
+        final File file =
+            new File(folder.getRoot(), artifact.getArtifactId() + ".jar");
+        if (file.isFile())
+        {
+          result.setArtifact(artifact.setFile(file));
+        }
+        else
+        {
+          result.addException(new ArtifactNotFoundException(artifact, null));
+          failed = true;
+        }
+        results.add(result);
+      }
+      if (failed)
+      {
+        throw new ArtifactResolutionException(results);
+      }
+      return results;
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp()
+  {
+    uut = createRepository(false);
+  }
+
+  @After
+  public void tearDown()
+  {
+    executor.shutdownNow();
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private MavenRepository createRepository(final boolean collectOnly)
+  {
+    final RepositorySystem system =
+        (RepositorySystem) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {RepositorySystem.class},
+            new FileRepositorySystem());
+    final DependencyTraverserGenerator generator =
+        new DependencyTraverserGenerator()
+        {
+          @Override
+          public DependencyTraverser createDependencyTraverser(
+              final DependencyTraverser delegate)
+          {
+            return delegate;
+          }
+
+          @Override
+          public boolean isIgnoreDependencyExclusions()
+          {
+            return false;
+          }
+        };
+
+    final DefaultRepositorySystemSession session =
+        new DefaultRepositorySystemSession();
+    session.setDependencyTraverser(new StaticDependencyTraverser(true));
+
+    final MojoRepositoryBuilder builder = new MojoRepositoryBuilder();
+    builder.with(system).with(session)
+        .with(Collections.<RemoteRepository> emptyList())
+        .withTraverserGenerator(generator).withResolutionThreads(3)
+        .withResolutionExecutor(executor).withCollectOnly(collectOnly);
+    return builder.build();
+  }
+
+  private static List<Dependency> createDependencies(final String... ids)
+  {
+    final List<Dependency> dependencies = new ArrayList<Dependency>();
+    for (final String id : ids)
+    {
+      final ArtifactBuilder builder = ArtifactBuilder.a();
+      builder.withGroupId("de.smartics.test");
+      builder.withArtifactId(id);
+      builder.withVersion("1.0");
+      dependencies.add(new Dependency(builder.build(), "compile"));
+    }
+    return dependencies;
+  }
+
+  private void createFiles(final String... ids) throws IOException
+  {
+    for (final String id : ids)
+    {
+      folder.newFile(id + ".jar");
+    }
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void resolvesArtifactsInBatchesAndStitchesFilesIntoGraph()
+    throws IOException, DependencyResolutionException
+  {
+    createFiles("a", "b", "c", "d", "e", "f", "g");
+
+    final MavenResponse response =
+        uut.resolve(createDependencies("a", "b", "c", "d", "e", "f", "g"));
+
+    assertThat(batchCount.get(), is(3));
+    final List<Dependency> dependencies = response.getDependencies();
+    assertThat(dependencies.size(), is(7));
+    for (final Dependency dependency : dependencies)
+    {
+      final Artifact artifact = dependency.getArtifact();
+      assertThat(artifact.getFile().getName(), is(artifact.getArtifactId()
+                                                  + ".jar"));
+    }
+  }
+
+  @Test(expected = DependencyResolutionException.class)
+  public void failsIfRootDependencyCannotBeResolved() throws IOException,
+    DependencyResolutionException
+  {
+    createFiles("a", "b");
+
+    uut.resolve(createDependencies("a", "b", "missing"));
+  }
+
+  @Test
+  public void streamsEachResolvedArtifactOnceToCallback() throws IOException,
+    DependencyResolutionException
+  {
+    createFiles("a", "b");
+    final List<String> artifactIds = new ArrayList<String>();
+    final DependencyCallback callback = new DependencyCallback()
+    {
+      @Override
+      public void accept(final Dependency dependency)
+      {
+        artifactIds.add(dependency.getArtifact().getArtifactId());
+      }
+    };
+
+    final MavenResponse response =
+        uut.resolve(createDependencies("a", "b", "a"), callback);
+
+    assertThat(artifactIds, contains("a", "b"));
+    assertThat(response.getDependencies().isEmpty(), is(true));
+  }
+
+  @Test
+  public void resolvesArtifactsOfPartiallyCollectedGraph() throws IOException,
+    DependencyResolutionException
+  {
+    createFiles(PARTIAL, "a", "b", "deep");
+
+    final MavenResponse response =
+        uut.resolveDirect(createDependencies(PARTIAL).get(0));
+
+    final List<String> artifactIds = new ArrayList<String>();
+    for (final Dependency dependency : response.getDependencies())
+    {
+      final Artifact artifact = dependency.getArtifact();
+      assertThat(artifact.getFile().getName(), is(artifact.getArtifactId()
+                                                  + ".jar"));
+      artifactIds.add(artifact.getArtifactId());
+    }
+    assertThat(artifactIds, contains(PARTIAL, "a", "b"));
+  }
+
+  @Test
+  public void filtersTransitiveDependenciesOfPartiallyCollectedGraph()
+    throws DependencyResolutionException
+  {
+    final MavenRepository collectOnly = createRepository(true);
+
+    final MavenResponse response =
+        collectOnly.resolveDirect(createDependencies(PARTIAL).get(0));
+
+    final List<String> artifactIds = new ArrayList<String>();
+    for (final Dependency dependency : response.getDependencies())
+    {
+      artifactIds.add(dependency.getArtifact().getArtifactId());
+    }
+    assertThat(artifactIds, contains(PARTIAL, "a", "b"));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.aether;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+import help.de.smartics.maven.plugin.jboss.modules.ModuleDescriptorBuilder;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.aether.PruningIndex;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
+
+/**
+ * Tests {@link PruningIndex}.
+ */
+public class PruningIndexTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  private PruningIndex uut;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp()
+  {
+    final ModuleDescriptorBuilder builder = ModuleDescriptorBuilder.a();
+    builder.withName("skipped");
+    builder.withInclude(new ArtifactClusion("org\\.skip\\..*", null));
+    builder.withExclude(new ArtifactClusion(null, "kept"));
+    final ModuleDescriptor skipModule = builder.build();
+
+    uut =
+        new PruningIndex(Arrays.asList(new ArtifactClusion("org.exact",
+            "excluded"), new ArtifactClusion("com.group", null),
+            new ArtifactClusion(null, "anywhere"), new ArtifactClusion(
+                "(net|io)\\.alt", null)),
+            Collections.singletonList(skipModule));
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private static Artifact createArtifact(final String groupId,
+      final String artifactId)
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId(groupId);
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    return builder.build();
+  }
+
+  private boolean isPruned(final String groupId, final String artifactId)
+  {
+    return uut.isPruned(createArtifact(groupId, artifactId));
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void prunesByGroupIdAndArtifactId()
+  {
+    assertThat(isPruned("org.exact", "excluded"), is(true));
+    assertThat(isPruned("org.exact", "other"), is(false));
+  }
+
+  @Test
+  public void keepsRegularExpressionSemanticsOfLiteralLookingIds()
+  {
+    assertThat(isPruned("orgXexact", "excluded"), is(true));
+    assertThat(isPruned("com-group", "any"), is(true));
+  }
+
+  @Test
+  public void prunesByGroupIdPatternAndRespectsModuleExcludes()
+  {
+    assertThat(isPruned("org.skip.sub", "any"), is(true));
+    assertThat(isPruned("org.skip.sub", "kept"), is(false));
+    assertThat(isPruned("org.skipper", "any"), is(false));
+  }
+
+  @Test
+  public void evaluatesRulesWithoutIndexableGroupId()
+  {
+    assertThat(isPruned("any.group", "anywhere"), is(true));
+    assertThat(isPruned("io.alt", "any"), is(true));
+    assertThat(isPruned("any.group", "any"), is(false));
+  }
+
+  @Test
+  public void returnsCachedVerdict()
+  {
+    assertThat(isPruned("org.exact", "excluded"), is(true));
+    assertThat(isPruned("org.exact", "excluded"), is(true));
+  }
+}
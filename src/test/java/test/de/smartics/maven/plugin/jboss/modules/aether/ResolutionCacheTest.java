@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.aether;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.smartics.maven.plugin.jboss.modules.aether.ResolutionCache;
+
+/**
+ * Tests {@link ResolutionCache}.
+ */
+public class ResolutionCacheTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final String DIGEST = "0123456789abcdef";
+
+  // --- members --------------------------------------------------------------
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private File cacheFile;
+
+  private Dependency one;
+
+  private Dependency two;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp() throws IOException
+  {
+    cacheFile = new File(folder.getRoot(), "resolution.cache");
+    one = createDependency("one", "");
+    two = createDependency("two", "sources");
+    two =
+        two.setExclusions(Collections.singletonList(new Exclusion(
+            "de.smartics.test", "three", "", "jar")));
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private Dependency createDependency(final String artifactId,
+      final String classifier) throws IOException
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId("de.smartics.test");
+    builder.withArtifactId(artifactId);
+    builder.withClassifier(classifier);
+    builder.withVersion("1.0");
+    final Artifact artifact =
+        builder.build().setFile(folder.newFile(artifactId + ".jar"));
+    return new Dependency(artifact, "compile");
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void readsWrittenDependencies() throws IOException
+  {
+    final List<Dependency> dependencies = Arrays.asList(one, two);
+    new ResolutionCache(cacheFile, DIGEST).write(dependencies);
+
+    final List<Dependency> result =
+        new ResolutionCache(cacheFile, DIGEST).read();
+
+    assertThat(result.toString(), is(dependencies.toString()));
+    assertThat(result.get(1).getExclusions(),
+        contains(two.getExclusions().toArray()));
+    assertThat(result.get(0).getArtifact().getFile(), is(one.getArtifact()
+        .getFile().getAbsoluteFile()));
+  }
+
+  @Test
+  public void ignoresCacheWithDifferentDigest() throws IOException
+  {
+    new ResolutionCache(cacheFile, DIGEST).write(Arrays.asList(one, two));
+
+    assertThat(new ResolutionCache(cacheFile, "fedcba9876543210").read(),
+        is(nullValue()));
+  }
+
+  @Test
+  public void ignoresCacheReferencingMissingFiles() throws IOException
+  {
+    new ResolutionCache(cacheFile, DIGEST).write(Arrays.asList(one, two));
+    two.getArtifact().getFile().delete();
+
+    assertThat(new ResolutionCache(cacheFile, DIGEST).read(), is(nullValue()));
+  }
+
+  @Test
+  public void readsWrittenDependenciesWithoutFiles() throws IOException
+  {
+    final Dependency collected =
+        one.setArtifact(one.getArtifact().setFile(null));
+    final List<Dependency> dependencies = Arrays.asList(collected, two);
+    new ResolutionCache(cacheFile, DIGEST).write(dependencies);
+
+    final List<Dependency> result =
+        new ResolutionCache(cacheFile, DIGEST).read();
+
+    assertThat(result.toString(), is(dependencies.toString()));
+    assertThat(result.get(0).getArtifact().getFile(), is(nullValue()));
+  }
+
+  @Test
+  public void readsWrittenArtifactProperties() throws IOException
+  {
+    final Map<String, String> properties = new HashMap<String, String>();
+    properties.put("type", "test-jar");
+    properties.put("language", "java, groovy");
+    properties.put("includesDependencies", "a=b\tc");
+    final Dependency withProperties =
+        one.setArtifact(one.getArtifact().setProperties(properties));
+    new ResolutionCache(cacheFile, DIGEST).write(Arrays.asList(withProperties,
+        two));
+
+    final List<Dependency> result =
+        new ResolutionCache(cacheFile, DIGEST).read();
+
+    assertThat(result.get(0).getArtifact().getProperties(), is(properties));
+    assertThat(result.get(1).getArtifact().getProperties(), is(two
+        .getArtifact().getProperties()));
+  }
+}
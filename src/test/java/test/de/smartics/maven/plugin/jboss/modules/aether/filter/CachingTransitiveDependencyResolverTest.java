@@ -0,0 +1,160 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.aether.filter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.aether.filter.CachingTransitiveDependencyResolver;
+import de.smartics.maven.plugin.jboss.modules.domain.ArtifactKey;
+import de.smartics.maven.plugin.jboss.modules.domain.TransitiveDependencyResolver;
+
+/**
+ * Tests {@link CachingTransitiveDependencyResolver}.
+ */
+public class CachingTransitiveDependencyResolverTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  private final CountingResolver delegate = new CountingResolver();
+
+  // ****************************** Inner Classes *****************************
+
+  private static final class CountingResolver implements
+      TransitiveDependencyResolver
+  {
+    private int calls;
+
+    @Override
+    public List<Dependency> resolve(final Dependency dependency)
+    {
+      calls++;
+      return Collections.singletonList(dependency);
+    }
+
+    @Override
+    public List<Dependency> resolveDirect(final Dependency dependency)
+    {
+      calls++;
+      return Collections.singletonList(dependency);
+    }
+
+    @Override
+    public List<Dependency> resolve(final List<Dependency> dependencies)
+    {
+      calls++;
+      return dependencies;
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  // --- helper ---------------------------------------------------------------
+
+  private static Dependency createDependency(final String artifactId)
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId("de.smartics.test");
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    return new Dependency(builder.build(), "compile");
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void resolvesEachArtifactOnlyOnce()
+    throws DependencyResolutionException
+  {
+    final CachingTransitiveDependencyResolver uut =
+        new CachingTransitiveDependencyResolver(delegate);
+    final Dependency dependency = createDependency("one");
+
+    uut.resolveDirect(dependency);
+    final List<Dependency> result =
+        uut.resolveDirect(createDependency("one"));
+
+    assertThat(result, contains(dependency));
+    assertThat(delegate.calls, is(1));
+    assertThat(uut.getMissCount(), is(1L));
+    assertThat(uut.getHitCount(), is(1L));
+  }
+
+  @Test
+  public void separatesDirectFromTransitiveResolutions()
+    throws DependencyResolutionException
+  {
+    final CachingTransitiveDependencyResolver uut =
+        new CachingTransitiveDependencyResolver(delegate);
+    final Dependency dependency = createDependency("one");
+
+    uut.resolveDirect(dependency);
+    uut.resolve(dependency);
+
+    assertThat(delegate.calls, is(2));
+    assertThat(uut.size(), is(2));
+  }
+
+  @Test
+  public void evictsOldestEntriesIfBounded()
+    throws DependencyResolutionException
+  {
+    final CachingTransitiveDependencyResolver uut =
+        new CachingTransitiveDependencyResolver(delegate, 2);
+
+    uut.resolveDirect(createDependency("one"));
+    uut.resolveDirect(createDependency("two"));
+    uut.resolveDirect(createDependency("three"));
+    uut.resolveDirect(createDependency("one"));
+
+    assertThat(uut.size(), is(2));
+    assertThat(uut.getEvictionCount(), is(2L));
+    assertThat(delegate.calls, is(4));
+  }
+
+  @Test
+  public void internsKeysOnlyIfUnbounded() throws DependencyResolutionException
+  {
+    final ArtifactKey.Pool keys = new ArtifactKey.Pool();
+    final CachingTransitiveDependencyResolver bounded =
+        new CachingTransitiveDependencyResolver(delegate, 2, keys);
+    final CachingTransitiveDependencyResolver unbounded =
+        new CachingTransitiveDependencyResolver(delegate, 0, keys);
+
+    bounded.resolveDirect(createDependency("one"));
+    bounded.resolveDirect(createDependency("two"));
+    bounded.resolveDirect(createDependency("three"));
+    assertThat(keys.size(), is(0));
+
+    unbounded.resolveDirect(createDependency("one"));
+    assertThat(keys.size(), is(1));
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.descriptor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.descriptor.ApplyToDependencies;
+import de.smartics.maven.plugin.jboss.modules.descriptor.DependenciesDescriptor;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleMatcher;
+
+/**
+ * Tests {@link ApplyToDependencies#getDescriptorThatMatches(String)} and the
+ * matching of module names by {@link ModuleMatcher}.
+ */
+public class ApplyToDependenciesMatchTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  // --- helper ---------------------------------------------------------------
+
+  private static ModuleMatcher createMatcher(final String include,
+      final String exclude)
+  {
+    final ModuleMatcher.Builder builder = new ModuleMatcher.Builder();
+    builder.addInclude(new ModuleClusion(include));
+    if (exclude != null)
+    {
+      builder.addExclude(new ModuleClusion(exclude));
+    }
+    return builder.build();
+  }
+
+  private static ApplyToDependencies createApply(final String include,
+      final String slot)
+  {
+    final DependenciesDescriptor.Builder descriptor =
+        new DependenciesDescriptor.Builder();
+    descriptor.with(createMatcher(include, null));
+    descriptor.withSlot(slot);
+    final ApplyToDependencies.Builder builder =
+        new ApplyToDependencies.Builder();
+    builder.add(descriptor.build());
+    return builder.build();
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void keepsRegularExpressionSemanticsOfLiteralNames()
+  {
+    final ModuleMatcher uut = createMatcher("javax.api", "javax.apis");
+
+    assertThat(uut.matches("javax.api"), is(true));
+    assertThat(uut.matches("javaxXapi"), is(true));
+    assertThat(uut.matches("javax.apis"), is(false));
+    assertThat(uut.matches("javax.api.sub"), is(false));
+  }
+
+  @Test
+  public void excludesLiteralNames()
+  {
+    final ModuleMatcher uut = createMatcher("javax\\..*", "javax.api");
+
+    assertThat(uut.matches("javax.xml"), is(true));
+    assertThat(uut.matches("javax.api"), is(false));
+  }
+
+  @Test
+  public void returnsCachedDescriptorPerName()
+  {
+    final ApplyToDependencies uut = createApply("javax.api", "main");
+
+    final DependenciesDescriptor first =
+        uut.getDescriptorThatMatches("javax.api");
+    final DependenciesDescriptor second =
+        uut.getDescriptorThatMatches("javax.api");
+
+    assertThat(first.getSlot(), is("main"));
+    assertThat(second, is(sameInstance(first)));
+    assertThat(uut.getDescriptorThatMatches("other").getSlot(),
+        is((String) null));
+  }
+
+  @Test
+  public void invalidatesCacheOnMerge()
+  {
+    final ApplyToDependencies uut = createApply("javax.api", "main");
+    assertThat(uut.getDescriptorThatMatches("javax.api").getServices(),
+        is((String) null));
+
+    final DependenciesDescriptor.Builder descriptor =
+        new DependenciesDescriptor.Builder();
+    descriptor.with(createMatcher("javax\\..*", null));
+    descriptor.withServices("import");
+    final ApplyToDependencies.Builder builder =
+        new ApplyToDependencies.Builder();
+    builder.add(descriptor.build());
+    uut.merge(builder.build());
+
+    assertThat(uut.getDescriptorThatMatches("javax.api").getServices(),
+        is("import"));
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.descriptor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactMatcher;
+import de.smartics.maven.plugin.jboss.modules.domain.MatchContext;
+import de.smartics.maven.plugin.jboss.modules.domain.matching.SingleMatchContext;
+
+/**
+ * Tests the contexts returned by {@link ArtifactClusion#matches(Artifact)} and
+ * {@link ArtifactMatcher#match(Artifact)}.
+ */
+public class ArtifactClusionMatchTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  // --- helper ---------------------------------------------------------------
+
+  private static Artifact createArtifact(final String groupId,
+      final String artifactId)
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId(groupId);
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    return builder.build();
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void returnsSharedContextIfNotMatched()
+  {
+    final ArtifactClusion uut = new ArtifactClusion("org\\.test.*", "core");
+
+    final MatchContext byGroupId = uut.matches(createArtifact("com.x", "core"));
+    final MatchContext byArtifactId =
+        uut.matches(createArtifact("org.test", "api"));
+
+    assertThat(byGroupId,
+        is(sameInstance((MatchContext) SingleMatchContext.NO_MATCH)));
+    assertThat(byArtifactId, is(sameInstance(byGroupId)));
+  }
+
+  @Test
+  public void returnsSharedContextIfMatchedWithoutGroups()
+  {
+    final ArtifactClusion uut = new ArtifactClusion("org\\.test.*", null);
+
+    final MatchContext first = uut.matches(createArtifact("org.test", "a"));
+    final MatchContext second = uut.matches(createArtifact("org.testing", "b"));
+
+    assertThat(first.isMatched(), is(true));
+    assertThat(first.hasGroupMatch(), is(false));
+    assertThat(first.getClusion(), is(sameInstance(uut)));
+    assertThat(second, is(sameInstance(first)));
+  }
+
+  @Test
+  public void translatesNamesWithCapturingGroups()
+  {
+    final ArtifactClusion uut =
+        new ArtifactClusion("org\\.(test)", "(.*)-impl");
+
+    final MatchContext context =
+        uut.matches(createArtifact("org.test", "core-impl"));
+
+    assertThat(context.isMatched(), is(true));
+    assertThat(context.hasGroupMatch(), is(true));
+    assertThat(context.translateName("$g1.$1"), is("test.core"));
+  }
+
+  @Test
+  public void matchesLiteralIds()
+  {
+    final ArtifactClusion uut = new ArtifactClusion(null, "core");
+
+    assertThat(uut.matches(createArtifact("any", "core")).isMatched(),
+        is(true));
+    assertThat(uut.matches(createArtifact("any", "other")).isMatched(),
+        is(false));
+    assertThat(new ArtifactClusion(null, null).matches(
+        createArtifact("any", "core")).isMatched(), is(false));
+  }
+
+  @Test
+  public void returnsIncludeContextUnlessExcluded()
+  {
+    final ArtifactClusion include = new ArtifactClusion("org.test", null);
+    final ArtifactMatcher.Builder builder = new ArtifactMatcher.Builder();
+    builder.addInclude(include);
+    builder.addExclude(new ArtifactClusion(null, "internal"));
+    final ArtifactMatcher uut = builder.build();
+
+    final MatchContext included = uut.match(createArtifact("org.test", "api"));
+    final MatchContext excluded =
+        uut.match(createArtifact("org.test", "internal"));
+
+    assertThat(included.getClusion(), is(sameInstance(include)));
+    assertThat(excluded.isMatched(), is(false));
+    assertThat(uut.findFilter(createArtifact("org.test", "internal")),
+        is((String) null));
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.descriptor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactMatcher;
+import de.smartics.maven.plugin.jboss.modules.domain.MatchContext;
+
+/**
+ * Tests that {@link ArtifactMatcher#match(Artifact)} with the clusions
+ * combined into a single pattern returns the first matching clusion in list
+ * order.
+ */
+public class ArtifactMatcherCombinedTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  // --- helper ---------------------------------------------------------------
+
+  private static Artifact createArtifact(final String groupId,
+      final String artifactId)
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId(groupId);
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    return builder.build();
+  }
+
+  private static ArtifactMatcher createMatcher(
+      final List<ArtifactClusion> includes)
+  {
+    final ArtifactMatcher.Builder builder = new ArtifactMatcher.Builder();
+    for (final ArtifactClusion include : includes)
+    {
+      builder.addInclude(include);
+    }
+    return builder.build();
+  }
+
+  private static ArtifactClusion findFirst(
+      final List<ArtifactClusion> clusions, final Artifact artifact)
+  {
+    for (final ArtifactClusion clusion : clusions)
+    {
+      if (clusion.matches(artifact).isMatched())
+      {
+        return clusion;
+      }
+    }
+    return null;
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void returnsFirstMatchingClusionInListOrder()
+  {
+    final List<ArtifactClusion> clusions =
+        Arrays.asList(new ArtifactClusion("org\\.test\\..*", "core"),
+            new ArtifactClusion(null, "api"), new ArtifactClusion(
+                "org.test.sub", null), new ArtifactClusion("org\\..*", null),
+            new ArtifactClusion("com\\.(a|b)", "x.*"));
+    final ArtifactMatcher uut = createMatcher(clusions);
+
+    final String[][] gas =
+        { {"org.test.sub", "core"}, {"org.test.sub", "api"},
+         {"org.test.sub", "impl"}, {"org.other", "impl"}, {"com.b", "xyz"},
+         {"com.c", "xyz"}, {"orgXtest", "core"}, {"net.any", "api"}};
+    for (final String[] ga : gas)
+    {
+      final Artifact artifact = createArtifact(ga[0], ga[1]);
+      final MatchContext context = uut.match(artifact);
+      final ArtifactClusion expected = findFirst(clusions, artifact);
+
+      assertThat(context.isMatched(), is(expected != null));
+      if (expected != null)
+      {
+        assertThat(context.getClusion(), is(sameInstance(expected)));
+      }
+    }
+  }
+
+  @Test
+  public void keepsOrderWithClusionsThatCannotBeCombined()
+  {
+    final List<ArtifactClusion> clusions =
+        Arrays.asList(new ArtifactClusion("^org\\.late$", null),
+            new ArtifactClusion("org\\..*", "a[b"), new ArtifactClusion(
+                "(?i)ORG\\.CASE", null), new ArtifactClusion("org\\..*",
+                "(.)\\1"), new ArtifactClusion("org\\..*", ".*(?=x).*"),
+            new ArtifactClusion("org\\..*", null));
+    final ArtifactMatcher uut = createMatcher(clusions);
+
+    final String[][] gas =
+        { {"org.late", "any"}, {"org.x", "a[b"}, {"org.case", "any"},
+         {"org.x", "aa"}, {"org.x", "axe"}, {"org.x", "other"},
+         {"net.x", "aa"}};
+    for (final String[] ga : gas)
+    {
+      final Artifact artifact = createArtifact(ga[0], ga[1]);
+      final MatchContext context = uut.match(artifact);
+      final ArtifactClusion expected = findFirst(clusions, artifact);
+
+      assertThat(context.isMatched(), is(expected != null));
+      if (expected != null)
+      {
+        assertThat(context.getClusion(), is(sameInstance(expected)));
+      }
+    }
+  }
+
+  @Test
+  public void translatesNamesWithCapturingGroups()
+  {
+    final ArtifactMatcher uut =
+        createMatcher(Arrays.asList(new ArtifactClusion("com\\..*", null),
+            new ArtifactClusion("org\\.(test)", "(.*)-impl"),
+            new ArtifactClusion("org\\..*", null)));
+
+    final MatchContext context =
+        uut.match(createArtifact("org.test", "core-impl"));
+
+    assertThat(context.hasGroupMatch(), is(true));
+    assertThat(context.translateName("$g1.$1"), is("test.core"));
+  }
+
+  @Test
+  public void appliesCombinedExcludes()
+  {
+    final ArtifactMatcher.Builder builder = new ArtifactMatcher.Builder();
+    builder.addInclude(new ArtifactClusion("org\\..*", null));
+    builder.addExclude(new ArtifactClusion(null, "internal"));
+    builder.addExclude(new ArtifactClusion("org\\.x", "test.*"));
+    builder.addExclude(new ArtifactClusion(null, "a:b"));
+    final ArtifactMatcher uut = builder.build();
+
+    assertThat(uut.match(createArtifact("org.x", "api")).isMatched(), is(true));
+    assertThat(uut.match(createArtifact("org.x", "internal")).isMatched(),
+        is(false));
+    assertThat(uut.match(createArtifact("org.x", "testing")).isMatched(),
+        is(false));
+    assertThat(uut.match(createArtifact("org.y", "testing")).isMatched(),
+        is(true));
+    assertThat(uut.match(createArtifact("org.y", "a:b")).isMatched(),
+        is(false));
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.domain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+
+import java.io.File;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.domain.ArtifactKey;
+
+/**
+ * Tests {@link ArtifactKey}.
+ */
+public class ArtifactKeyTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  private final ArtifactKey.Pool uut = new ArtifactKey.Pool();
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  // --- helper ---------------------------------------------------------------
+
+  private static Artifact createArtifact(final String artifactId,
+      final String classifier)
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId("org.test");
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    if (classifier != null)
+    {
+      builder.withClassifier(classifier);
+    }
+    return builder.build();
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void internsKeysOfEqualCoordinates()
+  {
+    final ArtifactKey first = uut.intern(createArtifact("core", null));
+    final ArtifactKey second =
+        uut.intern(createArtifact("core", null).setFile(new File("core.jar")));
+
+    assertThat(second, is(sameInstance(first)));
+    assertThat(uut.size(), is(1));
+  }
+
+  @Test
+  public void distinguishesCoordinates()
+  {
+    final ArtifactKey plain = uut.intern(createArtifact("core", null));
+    final ArtifactKey classified = uut.intern(createArtifact("core", "tests"));
+    final ArtifactKey other = uut.intern(createArtifact("api", null));
+
+    assertThat(classified, is(not(plain)));
+    assertThat(other, is(not(plain)));
+    assertThat(uut.size(), is(3));
+  }
+
+  @Test
+  public void equalsUninternedKeyOfSameCoordinates()
+  {
+    final Artifact artifact = createArtifact("core", "tests");
+    final ArtifactKey interned = uut.intern(artifact);
+    final ArtifactKey key = ArtifactKey.of(artifact);
+
+    assertThat(key, is(interned));
+    assertThat(key.hashCode(), is(interned.hashCode()));
+    assertThat(key.toString(), is("org.test:core:jar:tests:1.0"));
+  }
+
+  @Test
+  public void findsOnlyInternedKeys()
+  {
+    final ArtifactKey interned = uut.intern(createArtifact("core", null));
+
+    assertThat(uut.find(createArtifact("core", null)),
+        is(sameInstance(interned)));
+    assertThat(uut.find(createArtifact("api", null)), is(nullValue()));
+    assertThat(uut.size(), is(1));
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.domain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.smartics.maven.plugin.jboss.modules.domain.JarModuleArchive;
+
+/**
+ * Tests {@link JarModuleArchive}.
+ */
+public class JarModuleArchiveTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final String MODULE_XML = "<module name=\"test\" />";
+
+  // --- members --------------------------------------------------------------
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private File archiveFile;
+
+  private File resource;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp() throws IOException
+  {
+    archiveFile = new File(folder.getRoot(), "target/modules.jar");
+    resource = folder.newFile("test-1.0.jar");
+    FileUtils.writeStringToFile(resource, "jar contents", "UTF-8");
+
+    final Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().putValue("Created-By", "test");
+
+    final JarModuleArchive uut = new JarModuleArchive(archiveFile, manifest);
+    try
+    {
+      uut.add("org/test/main/module.xml", MODULE_XML.getBytes("UTF-8"));
+      uut.add("org/test/main/test-1.0.jar", resource);
+    }
+    finally
+    {
+      uut.close();
+    }
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private static String read(final JarFile jar, final ZipEntry entry)
+    throws IOException
+  {
+    return IOUtils.toString(jar.getInputStream(entry), "UTF-8");
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void writesManifestAndDirectories() throws IOException
+  {
+    final JarFile jar = new JarFile(archiveFile);
+    try
+    {
+      assertThat(jar.getManifest().getMainAttributes().getValue("Created-By"),
+          is("test"));
+      assertThat(jar.getEntry("org/"), notNullValue());
+      assertThat(jar.getEntry("org/test/main/"), notNullValue());
+    }
+    finally
+    {
+      jar.close();
+    }
+  }
+
+  @Test
+  public void storesJarsAndDeflatesOtherEntries() throws IOException
+  {
+    final JarFile jar = new JarFile(archiveFile);
+    try
+    {
+      final ZipEntry xml = jar.getEntry("org/test/main/module.xml");
+      assertThat(xml.getMethod(), is(ZipEntry.DEFLATED));
+      assertThat(read(jar, xml), is(MODULE_XML));
+
+      final ZipEntry resourceEntry = jar.getEntry("org/test/main/test-1.0.jar");
+      assertThat(resourceEntry.getMethod(), is(ZipEntry.STORED));
+      assertThat(read(jar, resourceEntry), is("jar contents"));
+    }
+    finally
+    {
+      jar.close();
+    }
+  }
+
+  @Test
+  public void writesEntriesNotBackedByFilesWithFixedTime() throws IOException
+  {
+    final JarFile jar = new JarFile(archiveFile);
+    try
+    {
+      final long time = JarModuleArchive.DEFAULT_ENTRY_TIME;
+      assertThat(jar.getEntry(JarFile.MANIFEST_NAME).getTime(), is(time));
+      assertThat(jar.getEntry("org/test/main/").getTime(), is(time));
+      assertThat(jar.getEntry("org/test/main/module.xml").getTime(), is(time));
+    }
+    finally
+    {
+      jar.close();
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.domain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.graph.Dependency;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.smartics.maven.plugin.jboss.modules.domain.ModuleFingerprints;
+import de.smartics.maven.plugin.jboss.modules.domain.ResourceStaging;
+
+/**
+ * Tests {@link ModuleFingerprints}.
+ */
+public class ModuleFingerprintsTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final byte[] MODULE_XML = "<module name=\"test\" />"
+      .getBytes();
+
+  // --- members --------------------------------------------------------------
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private File manifestFile;
+
+  private File moduleFolder;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp() throws IOException
+  {
+    manifestFile = new File(folder.getRoot(), "fingerprints");
+    moduleFolder = folder.newFolder("modules", "test", "main");
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private Dependency createDependency(final String artifactId,
+      final String content) throws IOException
+  {
+    final File file = new File(folder.getRoot(), artifactId + ".jar");
+    FileUtils.writeStringToFile(file, content, "UTF-8");
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId("de.smartics.test");
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    final Artifact artifact = builder.build().setFile(file);
+    return new Dependency(artifact, "compile");
+  }
+
+  private ModuleFingerprints createReadFingerprints() throws IOException
+  {
+    final ModuleFingerprints fingerprints =
+        new ModuleFingerprints(manifestFile);
+    fingerprints.read();
+    return fingerprints;
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void calculatesFingerprintIndependentOfResourceOrder()
+    throws IOException
+  {
+    final Dependency a = createDependency("a", "a");
+    final Dependency b = createDependency("b", "b");
+
+    final String fingerprint =
+        ModuleFingerprints.calcFingerprint(MODULE_XML, Arrays.asList(a, b),
+            ResourceStaging.COPY);
+
+    assertThat(ModuleFingerprints.calcFingerprint(MODULE_XML,
+        Arrays.asList(b, a), ResourceStaging.COPY), is(fingerprint));
+    assertThat(
+        ModuleFingerprints.calcFingerprint("<module />".getBytes(),
+            Arrays.asList(a, b), ResourceStaging.COPY), is(not(fingerprint)));
+  }
+
+  @Test
+  public void detectsChangedResource() throws IOException
+  {
+    final Dependency a = createDependency("a", "a");
+    final String fingerprint =
+        ModuleFingerprints.calcFingerprint(MODULE_XML,
+            Collections.singletonList(a), ResourceStaging.COPY);
+
+    createDependency("a", "changed");
+
+    assertThat(ModuleFingerprints.calcFingerprint(MODULE_XML,
+        Collections.singletonList(a), ResourceStaging.COPY),
+        is(not(fingerprint)));
+  }
+
+  @Test
+  public void detectsChangedResourceStaging() throws IOException
+  {
+    final List<Dependency> resources =
+        Collections.singletonList(createDependency("a", "a"));
+    final String fingerprint =
+        ModuleFingerprints.calcFingerprint(MODULE_XML, resources,
+            ResourceStaging.COPY);
+
+    assertThat(ModuleFingerprints.calcFingerprint(MODULE_XML, resources,
+        ResourceStaging.SYMBOLIC_LINK), is(not(fingerprint)));
+  }
+
+  @Test
+  public void reportsModuleUnchangedAfterRoundTrip() throws IOException
+  {
+    final ModuleFingerprints first = createReadFingerprints();
+    assertThat(first.update(moduleFolder, "abc"), is(false));
+    first.write();
+
+    final ModuleFingerprints second = createReadFingerprints();
+    assertThat(second.update(moduleFolder, "abc"), is(true));
+    second.write();
+
+    final ModuleFingerprints third = createReadFingerprints();
+    assertThat(third.update(moduleFolder, "def"), is(false));
+  }
+
+  @Test
+  public void dropsModulesNotCreatedInCurrentBuild() throws IOException
+  {
+    final ModuleFingerprints first = createReadFingerprints();
+    first.update(moduleFolder, "abc");
+    first.write();
+
+    createReadFingerprints().write();
+
+    assertThat(createReadFingerprints().update(moduleFolder, "abc"),
+        is(false));
+  }
+
+  @Test
+  public void checksCompletenessOfModuleFolder() throws IOException
+  {
+    final Dependency a = createDependency("a", "a");
+    final List<Dependency> resources = Collections.singletonList(a);
+    final Collection<Dependency> none = null;
+
+    assertThat(ModuleFingerprints.isComplete(moduleFolder, none), is(false));
+
+    FileUtils.writeByteArrayToFile(new File(moduleFolder, "module.xml"),
+        MODULE_XML);
+    assertThat(ModuleFingerprints.isComplete(moduleFolder, none), is(true));
+    assertThat(ModuleFingerprints.isComplete(moduleFolder, resources),
+        is(false));
+
+    FileUtils.copyFileToDirectory(a.getArtifact().getFile(), moduleFolder);
+    assertThat(ModuleFingerprints.isComplete(moduleFolder, resources),
+        is(true));
+  }
+}
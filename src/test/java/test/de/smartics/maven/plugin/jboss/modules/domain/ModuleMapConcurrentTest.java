@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.domain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+import help.de.smartics.maven.plugin.jboss.modules.ModuleDescriptorBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.aether.graph.Dependency;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
+import de.smartics.maven.plugin.jboss.modules.domain.ModuleMap;
+
+/**
+ * Tests populating {@link ModuleMap} by concurrent threads.
+ */
+public class ModuleMapConcurrentTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final int THREADS = 4;
+
+  private static final int ARTIFACTS = 200;
+
+  // --- members --------------------------------------------------------------
+
+  private ModuleMap uut;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp()
+  {
+    final ModuleDescriptorBuilder builder = ModuleDescriptorBuilder.a();
+    builder.withName("stacked");
+    builder.withInclude(new ArtifactClusion("de\\.smartics\\.stacked", null));
+    uut = new ModuleMap(Collections.singletonList(builder.build()));
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private static Dependency createDependency(final String groupId,
+      final String artifactId)
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId(groupId);
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    return new Dependency(builder.build(), "compile");
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void assignsEachDependencyOnceAndOrdersModulesByName()
+    throws Exception
+  {
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try
+    {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int i = 0; i < THREADS; i++)
+      {
+        futures.add(executor.submit(new Callable<Void>()
+        {
+          @Override
+          public Void call()
+          {
+            for (int j = ARTIFACTS - 1; j >= 0; j--)
+            {
+              uut.add(createDependency("de.smartics.stacked", "a" + j));
+              uut.add(createDependency("de.smartics.single", "b" + j % 3));
+            }
+            return null;
+          }
+        }));
+      }
+      for (final Future<Void> future : futures)
+      {
+        future.get();
+      }
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+
+    final Map<ModuleDescriptor, List<Dependency>> map = uut.toMap();
+    final List<String> names = new ArrayList<String>();
+    for (final ModuleDescriptor module : map.keySet())
+    {
+      names.add(module.getName());
+    }
+    assertThat(names, contains("de.smartics.single.b0",
+        "de.smartics.single.b1", "de.smartics.single.b2", "stacked"));
+    assertThat(map.get(ModuleDescriptor.create("stacked")).size(),
+        is(ARTIFACTS));
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.domain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+import help.de.smartics.maven.plugin.jboss.modules.ModuleDescriptorBuilder;
+
+import java.util.Arrays;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.graph.Dependency;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
+import de.smartics.maven.plugin.jboss.modules.domain.MatchContext;
+import de.smartics.maven.plugin.jboss.modules.domain.ModuleMap;
+
+/**
+ * Tests that {@link ModuleMap#findFilter(ModuleDescriptor, Dependency)} reads
+ * back the clusion recorded when the dependency has been added.
+ */
+public class ModuleMapFilterTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  private CountingClusion filtered;
+
+  private ModuleDescriptor filteredModule;
+
+  private ModuleDescriptor otherModule;
+
+  private ModuleMap uut;
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Counts the artifacts matched against the clusion.
+   */
+  private static final class CountingClusion extends ArtifactClusion
+  {
+    private int count;
+
+    private CountingClusion(final String groupId, final String artifactId,
+        final String filter)
+    {
+      super(groupId, artifactId, filter);
+    }
+
+    @Override
+    public MatchContext matches(final Artifact artifact)
+    {
+      count++;
+      return super.matches(artifact);
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp()
+  {
+    filtered =
+        new CountingClusion("org\\.test.*", null, "<filter>test</filter>");
+    filteredModule = createModule("filtered", filtered);
+    otherModule =
+        createModule("other", new ArtifactClusion("org\\.test.*", "api",
+            "<filter>other</filter>"));
+    uut =
+        new ModuleMap(Arrays.asList(filteredModule, otherModule,
+            createModule("plain", new ArtifactClusion("com.plain", null))));
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private static ModuleDescriptor createModule(final String name,
+      final ArtifactClusion include)
+  {
+    final ModuleDescriptorBuilder builder = ModuleDescriptorBuilder.a();
+    builder.withName(name);
+    builder.withInclude(include);
+    return builder.build();
+  }
+
+  private static Dependency createDependency(final String groupId,
+      final String artifactId)
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId(groupId);
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    return new Dependency(builder.build(), "compile");
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void readsBackFilterWithoutMatchingAgain()
+  {
+    final Dependency dependency = createDependency("org.test", "api");
+    final ModuleDescriptor module = uut.add(dependency);
+    final int count = filtered.count;
+
+    final String filter = uut.findFilter(module, dependency);
+
+    assertThat(filter, is("<filter>test</filter>"));
+    assertThat(filtered.count, is(count));
+  }
+
+  @Test
+  public void matchesAgainIfModuleHasOtherMatcher()
+  {
+    final Dependency dependency = createDependency("org.test", "api");
+    uut.add(dependency);
+
+    assertThat(uut.findFilter(otherModule, dependency),
+        is("<filter>other</filter>"));
+  }
+
+  @Test
+  public void returnsNoFilterForClusionsWithoutFilter()
+  {
+    final Dependency plain = createDependency("com.plain", "core");
+    final Dependency created = createDependency("net.any", "core");
+    final ModuleDescriptor plainModule = uut.add(plain);
+    final ModuleDescriptor createdModule = uut.add(created);
+
+    assertThat(uut.findFilter(plainModule, plain), is((String) null));
+    assertThat(uut.findFilter(createdModule, created), is((String) null));
+  }
+
+  @Test
+  public void matchesDependenciesNotAdded()
+  {
+    final Dependency dependency = createDependency("org.test", "impl");
+
+    assertThat(uut.findFilter(filteredModule, dependency),
+        is("<filter>test</filter>"));
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.domain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+import help.de.smartics.maven.plugin.jboss.modules.ModuleDescriptorBuilder;
+
+import java.util.Arrays;
+
+import org.eclipse.aether.graph.Dependency;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
+import de.smartics.maven.plugin.jboss.modules.domain.ModuleMap;
+
+/**
+ * Tests that {@link ModuleMap} assigns an artifact to the first declared
+ * module matching it, regardless of how the includes of the modules are
+ * indexed.
+ */
+public class ModuleMapMatchOrderTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  private ModuleMap uut;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp()
+  {
+    uut =
+        new ModuleMap(Arrays.asList(
+            createModule("pattern", new ArtifactClusion("org\\.hibernate.*",
+                "hibernate-.*")),
+            createModule("exact", new ArtifactClusion("org.hibernate",
+                "hibernate-core")),
+            createModule("artifact", new ArtifactClusion(null, "validator")),
+            createModule("residual", new ArtifactClusion(".*", null))));
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private static ModuleDescriptor createModule(final String name,
+      final ArtifactClusion include)
+  {
+    final ModuleDescriptorBuilder builder = ModuleDescriptorBuilder.a();
+    builder.withName(name);
+    builder.withInclude(include);
+    return builder.build();
+  }
+
+  private String getModuleName(final String groupId, final String artifactId)
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId(groupId);
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    return uut.getModule(new Dependency(builder.build(), "compile")).getName();
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void prefersEarlierPatternOverLaterExactMatch()
+  {
+    assertThat(getModuleName("org.hibernate", "hibernate-core"), is("pattern"));
+  }
+
+  @Test
+  public void findsModulesInEachIndex()
+  {
+    assertThat(getModuleName("org.hibernate.common", "hibernate-commons"),
+        is("pattern"));
+    assertThat(getModuleName("org.hibernate", "validator"), is("artifact"));
+    assertThat(getModuleName("com.acme", "tool"), is("residual"));
+  }
+}
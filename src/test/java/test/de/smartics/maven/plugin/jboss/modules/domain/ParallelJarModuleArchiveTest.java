@@ -0,0 +1,215 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.domain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.smartics.maven.plugin.jboss.modules.domain.JarModuleArchive;
+import de.smartics.maven.plugin.jboss.modules.domain.ParallelJarModuleArchive;
+
+/**
+ * Tests {@link ParallelJarModuleArchive}.
+ */
+public class ParallelJarModuleArchiveTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final int MODULE_COUNT = 20;
+
+  // --- members --------------------------------------------------------------
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private File jarResource;
+
+  private File largeResource;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp() throws IOException
+  {
+    jarResource = folder.newFile("test-1.0.jar");
+    FileUtils.writeStringToFile(jarResource, "jar contents", "UTF-8");
+    largeResource = folder.newFile("large.txt");
+    FileUtils.writeStringToFile(largeResource,
+        StringUtils.repeat("large resource ", 500000), "UTF-8");
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private File write(final String name, final int threads,
+      final int compressionLevel, final boolean storeJars) throws IOException
+  {
+    final Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    final File file = new File(folder.getRoot(), name);
+    final ParallelJarModuleArchive uut =
+        new ParallelJarModuleArchive(file, manifest, threads,
+            compressionLevel, storeJars);
+    try
+    {
+      for (int i = 0; i < MODULE_COUNT; i++)
+      {
+        final String path = "org/test" + i + "/main/";
+        uut.add(path + "module.xml",
+            ("<module name=\"test" + i + "\" />").getBytes("UTF-8"));
+        uut.add(path + "test-1.0.jar", jarResource);
+        uut.add(path + "large.txt", largeResource);
+      }
+    }
+    finally
+    {
+      uut.close();
+    }
+    return file;
+  }
+
+  private static List<String> readEntries(final File file) throws IOException
+  {
+    final List<String> entries = new ArrayList<String>();
+    final JarFile jar = new JarFile(file);
+    try
+    {
+      final Enumeration<? extends ZipEntry> enumeration = jar.entries();
+      while (enumeration.hasMoreElements())
+      {
+        final ZipEntry entry = enumeration.nextElement();
+        final String content =
+            IOUtils.toString(jar.getInputStream(entry), "UTF-8");
+        entries.add(entry.getName() + ' ' + entry.getMethod() + ' '
+                    + content.hashCode());
+      }
+    }
+    finally
+    {
+      jar.close();
+    }
+    return entries;
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void writesEntriesIndependentOfNumberOfThreads() throws IOException
+  {
+    final List<String> sequential =
+        readEntries(write("sequential.jar", 1,
+            Deflater.DEFAULT_COMPRESSION, true));
+    final List<String> parallel =
+        readEntries(write("parallel.jar", 4, Deflater.DEFAULT_COMPRESSION,
+            true));
+
+    assertThat(parallel, is(sequential));
+    assertThat(parallel.get(0).startsWith("META-INF/ "), is(true));
+    assertThat(parallel.get(1).startsWith(JarFile.MANIFEST_NAME), is(true));
+    assertThat(parallel.get(2).startsWith("org/ "), is(true));
+  }
+
+  @Test
+  public void storesJarsOnlyIfRequested() throws IOException
+  {
+    final JarFile stored =
+        new JarFile(write("stored.jar", 2, Deflater.BEST_SPEED, true));
+    final JarFile deflated =
+        new JarFile(write("deflated.jar", 2, Deflater.BEST_SPEED, false));
+    try
+    {
+      final String name = "org/test0/main/test-1.0.jar";
+      assertThat(stored.getEntry(name).getMethod(), is(ZipEntry.STORED));
+      assertThat(deflated.getEntry(name).getMethod(), is(ZipEntry.DEFLATED));
+      assertThat(IOUtils.toString(deflated.getInputStream(deflated
+          .getEntry(name)), "UTF-8"), is("jar contents"));
+    }
+    finally
+    {
+      stored.close();
+      deflated.close();
+    }
+  }
+
+  @Test
+  public void writesUncompressedLargeEntries() throws IOException
+  {
+    final JarFile jar =
+        new JarFile(write("uncompressed.jar", 3, Deflater.NO_COMPRESSION,
+            true));
+    try
+    {
+      final ZipEntry entry = jar.getEntry("org/test19/main/large.txt");
+      assertThat(entry.getSize(), is(largeResource.length()));
+      assertThat(IOUtils.toString(jar.getInputStream(entry), "UTF-8"),
+          is(FileUtils.readFileToString(largeResource, "UTF-8")));
+    }
+    finally
+    {
+      jar.close();
+    }
+  }
+
+  @Test
+  public void writesEntriesNotBackedByFilesWithFixedTime() throws IOException
+  {
+    final File file = write("times.jar", 2, Deflater.DEFAULT_COMPRESSION, true);
+
+    final JarFile jar = new JarFile(file);
+    try
+    {
+      final long time = JarModuleArchive.DEFAULT_ENTRY_TIME;
+      assertThat(jar.getEntry("META-INF/").getTime(), is(time));
+      assertThat(jar.getEntry(JarFile.MANIFEST_NAME).getTime(), is(time));
+      assertThat(jar.getEntry("org/test0/main/").getTime(), is(time));
+      assertThat(jar.getEntry("org/test0/main/module.xml").getTime(), is(time));
+    }
+    finally
+    {
+      jar.close();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsInvalidCompressionLevel() throws IOException
+  {
+    write("invalid.jar", 2, 10, true);
+  }
+}
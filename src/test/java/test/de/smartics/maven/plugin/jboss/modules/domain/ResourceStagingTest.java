@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.domain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.smartics.maven.plugin.jboss.modules.domain.ResourceStaging;
+
+/**
+ * Tests {@link ResourceStaging}.
+ */
+public class ResourceStagingTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final String CONTENT = "jar contents";
+
+  // --- members --------------------------------------------------------------
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private File source;
+
+  private File moduleFolder;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp() throws IOException
+  {
+    source = new File(folder.newFolder("repository"), "test.jar");
+    FileUtils.writeStringToFile(source, CONTENT, "UTF-8");
+    moduleFolder = folder.newFolder("modules", "test", "main");
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private File stage(final ResourceStaging staging) throws IOException
+  {
+    final File target = new File(moduleFolder, source.getName());
+    staging.stage(source, target);
+    return target;
+  }
+
+  private static String read(final File file) throws IOException
+  {
+    return FileUtils.readFileToString(file, "UTF-8");
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void stagesContentsWithEachStrategy() throws IOException
+  {
+    for (final ResourceStaging staging : ResourceStaging.values())
+    {
+      assertThat(staging.toString(), read(stage(staging)), is(CONTENT));
+    }
+  }
+
+  @Test
+  public void transfersWithModificationTimeOfSource() throws IOException
+  {
+    source.setLastModified(1000000000000L);
+
+    final File target = stage(ResourceStaging.TRANSFER);
+
+    assertThat(target.lastModified(), is(source.lastModified()));
+  }
+
+  @Test
+  public void doesNotOverwriteLinkedSourceOnRestaging() throws IOException
+  {
+    stage(ResourceStaging.HARD_LINK);
+
+    final File target = stage(ResourceStaging.COPY);
+    FileUtils.writeStringToFile(target, "changed", "UTF-8");
+
+    assertThat(read(source), is(CONTENT));
+  }
+
+  @Test
+  public void findsSymbolicLinksWithinFolder() throws IOException
+  {
+    final File target = stage(ResourceStaging.SYMBOLIC_LINK);
+    if (!Files.isSymbolicLink(target.toPath()))
+    {
+      return;
+    }
+
+    final Map<String, File> links =
+        ResourceStaging.findSymbolicLinks(folder.getRoot());
+
+    assertThat(links.size(), is(1));
+    assertThat(links.get("modules/test/main/test.jar"),
+        is(source.getCanonicalFile()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnknownStrategy()
+  {
+    ResourceStaging.fromString("unknown");
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.domain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.smartics.maven.plugin.jboss.modules.domain.StaleModuleCleaner;
+
+/**
+ * Tests {@link StaleModuleCleaner}.
+ */
+public class StaleModuleCleanerTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private File targetFolder;
+
+  private File modulesFile;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp() throws IOException
+  {
+    targetFolder = folder.newFolder("jboss-modules");
+    modulesFile = new File(folder.getRoot(), "jboss-modules.folders");
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private File createFile(final String path) throws IOException
+  {
+    final File file = new File(targetFolder, path);
+    FileUtils.writeStringToFile(file, path, "UTF-8");
+    return file;
+  }
+
+  private boolean exists(final String path)
+  {
+    return new File(targetFolder, path).exists();
+  }
+
+  private List<File> build(final String... modulePaths) throws IOException
+  {
+    final StaleModuleCleaner uut =
+        new StaleModuleCleaner(targetFolder, modulesFile);
+    for (final String path : modulePaths)
+    {
+      createFile(path + "/module.xml");
+      uut.addModule(new File(targetFolder, path));
+    }
+    return uut.clean();
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void removesModulesOfPreviousBuildNotCreatedByCurrentBuild()
+    throws IOException
+  {
+    build("org/kept/main", "org/removed/main", "com/renamed/main");
+    createFile("org/removed/main/removed-1.0.jar");
+
+    build("org/kept/main");
+
+    assertThat(exists("org/kept/main/module.xml"), is(true));
+    assertThat(exists("org/removed"), is(false));
+    assertThat(exists("com"), is(false));
+  }
+
+  @Test
+  public void removesModulesOfChangedSlot() throws IOException
+  {
+    build("org/test/main");
+
+    build("org/test/2");
+
+    assertThat(exists("org/test/main"), is(false));
+    assertThat(exists("org/test/2/module.xml"), is(true));
+  }
+
+  @Test
+  public void keepsModulesNotCreatedByPreviousBuild() throws IOException
+  {
+    createFile("org/foreign/main/module.xml");
+    createFile("org/foreign/main/foreign-1.0.jar");
+    build("org/test/main");
+
+    assertThat(build("org/other/main").size(), is(2));
+
+    assertThat(exists("org/foreign/main/module.xml"), is(true));
+    assertThat(exists("org/foreign/main/foreign-1.0.jar"), is(true));
+    assertThat(exists("org/test"), is(false));
+  }
+
+  @Test
+  public void keepsFilesInFoldersOfCreatedModules() throws IOException
+  {
+    build("org/test/main");
+    createFile("org/test/main/test-1.0.jar");
+
+    assertThat(build("org/test/main").isEmpty(), is(true));
+
+    assertThat(exists("org/test/main/test-1.0.jar"), is(true));
+  }
+
+  @Test
+  public void ignoresModulesRecordedForOtherTargetFolder() throws IOException
+  {
+    build("org/test/main");
+    final File otherFolder = folder.newFolder("other-modules");
+    final StaleModuleCleaner other =
+        new StaleModuleCleaner(otherFolder, modulesFile);
+    other.addModule(new File(otherFolder, "org/other/main"));
+    other.clean();
+
+    assertThat(build().isEmpty(), is(true));
+
+    assertThat(exists("org/test/main/module.xml"), is(true));
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.xml;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.aether.graph.Dependency;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactMatcher;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
+import de.smartics.maven.plugin.jboss.modules.domain.ExecutionContext;
+import de.smartics.maven.plugin.jboss.modules.domain.ModuleMap;
+import de.smartics.maven.plugin.jboss.modules.domain.SlotStrategy;
+import de.smartics.maven.plugin.jboss.modules.domain.TransitiveDependencyResolver;
+import de.smartics.maven.plugin.jboss.modules.xml.ModuleXmlBuilder;
+
+/**
+ * Tests the de-duplication of the dependencies of a module with a large
+ * number of transitive dependencies by {@link ModuleXmlBuilder}.
+ */
+public class ModuleXmlBuilderDependenciesTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final int LIBRARY_COUNT = 4000;
+
+  // --- members --------------------------------------------------------------
+
+  private Dependency one;
+
+  private Dependency two;
+
+  private final List<Dependency> optionalLibraries = new ArrayList<Dependency>();
+
+  private final List<Dependency> requiredLibraries = new ArrayList<Dependency>();
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Resolves the first resource to all libraries as optional dependencies
+   * and the second resource to every second library as required dependency.
+   */
+  private final class LibraryResolver implements TransitiveDependencyResolver
+  {
+    @Override
+    public List<Dependency> resolve(final Dependency dependency)
+    {
+      return resolveDirect(dependency);
+    }
+
+    @Override
+    public List<Dependency> resolveDirect(final Dependency dependency)
+    {
+      return dependency == one ? optionalLibraries : requiredLibraries;
+    }
+
+    @Override
+    public List<Dependency> resolve(final List<Dependency> dependencies)
+    {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp()
+  {
+    one = createDependency("de.smartics.test", "one");
+    two = createDependency("de.smartics.test", "two");
+    for (int i = LIBRARY_COUNT - 1; i >= 0; i--)
+    {
+      final Dependency library =
+          createDependency("org.library", String.format("lib%04d", i));
+      optionalLibraries.add(library.setOptional(true));
+      if (i % 2 == 0)
+      {
+        requiredLibraries.add(library.setOptional(false));
+      }
+    }
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private static Dependency createDependency(final String groupId,
+      final String artifactId)
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId(groupId);
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    return new Dependency(builder.build(), "compile");
+  }
+
+  private List<String> buildDependencyNames(final Dependency... resources)
+  {
+    final ArtifactMatcher.Builder matcher = new ArtifactMatcher.Builder();
+    matcher.addInclude(new ArtifactClusion("de.smartics.test", null));
+    final ModuleDescriptor module =
+        new ModuleDescriptor.Builder().withName("de.smartics.test")
+            .with(matcher.build()).build();
+
+    final List<Dependency> all = new ArrayList<Dependency>(optionalLibraries);
+    all.addAll(Arrays.asList(one, two));
+    final ModuleMap moduleMap =
+        new ModuleMap(Collections.singletonList(module), all);
+    final ExecutionContext context =
+        new ExecutionContext.Builder().withTargetFolder(new File("."))
+            .with(new LibraryResolver()).with(SlotStrategy.MAIN)
+            .with(moduleMap).withIgnoreOptionalDependencies(true)
+            .withGenerateFeaturePackDefinition(false).build();
+
+    final Document document =
+        new ModuleXmlBuilder(context, module, Arrays.asList(resources)).build();
+    final Element root = document.getRootElement();
+    final Element dependencies =
+        root.getChild("dependencies", root.getNamespace());
+    final List<String> names = new ArrayList<String>();
+    for (final Element element : dependencies.getChildren())
+    {
+      names.add(element.getAttributeValue("name"));
+    }
+    return names;
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void mergesOptionalAndRequiredDependenciesInSortedOrder()
+  {
+    final List<String> names = buildDependencyNames(one, two);
+
+    assertThat(names.size(), is(LIBRARY_COUNT / 2));
+    for (int i = 0; i < names.size(); i++)
+    {
+      assertThat(names.get(i),
+          is(String.format("org.library.lib%04d", i * 2)));
+    }
+  }
+
+  @Test
+  public void keepsRequiredDependencyRegardlessOfOrder()
+  {
+    assertThat(buildDependencyNames(two, one).size(), is(LIBRARY_COUNT / 2));
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.xml;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import help.de.smartics.maven.plugin.jboss.modules.ArtifactBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.codehaus.plexus.util.IOUtil;
+import org.eclipse.aether.graph.Dependency;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.smartics.maven.plugin.jboss.modules.descriptor.ApplyToModule;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactClusion;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ArtifactMatcher;
+import de.smartics.maven.plugin.jboss.modules.descriptor.ModuleDescriptor;
+import de.smartics.maven.plugin.jboss.modules.domain.ExecutionContext;
+import de.smartics.maven.plugin.jboss.modules.domain.ModuleMap;
+import de.smartics.maven.plugin.jboss.modules.domain.SlotStrategy;
+import de.smartics.maven.plugin.jboss.modules.domain.TransitiveDependencyResolver;
+import de.smartics.maven.plugin.jboss.modules.parser.ModulesXmlParser;
+import de.smartics.maven.plugin.jboss.modules.test.utils.IoTestUtils;
+import de.smartics.maven.plugin.jboss.modules.xml.ModuleXmlBuilder;
+
+/**
+ * Tests that {@link ModuleXmlBuilder#write(java.io.OutputStream)} writes the
+ * same bytes as the pretty printed document built by
+ * {@link ModuleXmlBuilder#build()}.
+ */
+public class ModuleXmlBuilderStreamingTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The folder of the descriptor fixtures of the parser tests.
+   */
+  private static final String FIXTURES =
+      "test/de/smartics/maven/plugin/jboss/modules/parser/";
+
+  /**
+   * The descriptor fixtures of the parser tests.
+   */
+  private static final String[] FIXTURE_NAMES =
+      {"apply-to-module.xml", "apply-to-module-v2.xml",
+       "apply-to-module-with-system.xml",
+       "apply-to-module-with-system-v2.xml", "dependencies.xml",
+       "dependencies-v2.xml", "dependencies-full.xml", "directives.xml",
+       "directives-v2.xml", "full-and-everything.xml", "match.xml",
+       "match-regular.xml", "match-v2.xml", "match-v2-filter.xml"};
+
+  // --- members --------------------------------------------------------------
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private Dependency one;
+
+  private Dependency two;
+
+  private Dependency library;
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Resolves each dependency to the library.
+   */
+  private final class LibraryResolver implements TransitiveDependencyResolver
+  {
+    @Override
+    public List<Dependency> resolve(final Dependency dependency)
+    {
+      return resolveDirect(dependency);
+    }
+
+    @Override
+    public List<Dependency> resolveDirect(final Dependency dependency)
+    {
+      return Collections.singletonList(library);
+    }
+
+    @Override
+    public List<Dependency> resolve(final List<Dependency> dependencies)
+    {
+      return Collections.singletonList(library);
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  @Before
+  public void setUp() throws IOException
+  {
+    one = createDependency("de.smartics.test", "one");
+    two = createDependency("de.smartics.test", "two");
+    library = createDependency("org.library", "library").setOptional(true);
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private Dependency createDependency(final String groupId,
+      final String artifactId) throws IOException
+  {
+    final ArtifactBuilder builder = ArtifactBuilder.a();
+    builder.withGroupId(groupId);
+    builder.withArtifactId(artifactId);
+    builder.withVersion("1.0");
+    final Artifact artifact =
+        builder.build().setFile(folder.newFile(artifactId + "-1.0.jar"));
+    return new Dependency(artifact, "compile");
+  }
+
+  private ModuleDescriptor createModule(final String dependencyXml)
+  {
+    final ApplyToModule.Builder applyToModule = new ApplyToModule.Builder();
+    applyToModule.withMainClassXml("<main-class name=\"de.smartics.Main\"/>");
+    applyToModule.addPropertyXml("p",
+        "<property name=\"p\" value=\"a &amp; &quot;b&quot;\"/>");
+    applyToModule.addResourceRootXml("<resource-root path=\"extra\">\n"
+                                     + "  <!-- extra classes -->\n"
+                                     + "</resource-root>");
+    applyToModule.addDependencyXml("javax.api", dependencyXml);
+    applyToModule.withExportsXml("<exports xmlns=\"urn:other\">"
+                                 + "<include path=\"META-INF\"/></exports>");
+
+    final ArtifactMatcher.Builder matcher = new ArtifactMatcher.Builder();
+    matcher.addInclude(new ArtifactClusion("de.smartics.test", null,
+        "<filter><exclude path=\"internal\"/></filter>"));
+
+    return new ModuleDescriptor.Builder().withName("de.smartics.test")
+        .withSlot("1.0").with(applyToModule.build()).with(matcher.build())
+        .build();
+  }
+
+  private static List<ModuleDescriptor> parseFixture(final String name)
+    throws Exception
+  {
+    final InputStream input =
+        IoTestUtils.openStreamFromResource(FIXTURES + name);
+    try
+    {
+      return new ModulesXmlParser().parse(name, input).getDescriptors();
+    }
+    finally
+    {
+      IOUtil.close(input);
+    }
+  }
+
+  private ModuleXmlBuilder createBuilder(final ModuleDescriptor module)
+  {
+    return createBuilder(Collections.singletonList(module), module);
+  }
+
+  private ModuleXmlBuilder createBuilder(final List<ModuleDescriptor> modules,
+      final ModuleDescriptor module)
+  {
+    final ModuleMap moduleMap =
+        new ModuleMap(modules, Arrays.asList(one, two, library));
+    final ExecutionContext context =
+        new ExecutionContext.Builder().withTargetFolder(folder.getRoot())
+            .with(new LibraryResolver()).with(SlotStrategy.MAIN)
+            .with(moduleMap).withIgnoreOptionalDependencies(false)
+            .withGenerateFeaturePackDefinition(false).build();
+    return new ModuleXmlBuilder(context, module, Arrays.asList(one, two));
+  }
+
+  private static String writeDocument(final ModuleXmlBuilder builder)
+    throws IOException
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new XMLOutputter(Format.getPrettyFormat()).output(builder.build(), out);
+    return out.toString("UTF-8");
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void writesSameBytesAsPrettyPrintedDocument() throws IOException
+  {
+    final ModuleDescriptor module =
+        createModule("<module name=\"javax.api\" export=\"true\">\n"
+                     + "  <imports><include path=\"a\tb\"/></imports>\n"
+                     + "</module>");
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    final boolean written = createBuilder(module).write(out);
+
+    assertThat(written, is(true));
+    assertThat(out.toString("UTF-8"), is(writeDocument(createBuilder(module))));
+  }
+
+  @Test
+  public void rejectsFragmentsWithMixedContent() throws IOException
+  {
+    final ModuleDescriptor module =
+        createModule("<module name=\"javax.api\">text<imports/></module>");
+
+    assertThat(createBuilder(module).write(new ByteArrayOutputStream()),
+        is(false));
+  }
+
+  @Test
+  public void writesSameBytesAsPrettyPrintedDocumentForDescriptorFixtures()
+    throws Exception
+  {
+    for (final String name : FIXTURE_NAMES)
+    {
+      final List<ModuleDescriptor> modules = parseFixture(name);
+      for (final ModuleDescriptor module : modules)
+      {
+        final String reason = name + ": " + module.getName();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        final boolean written = createBuilder(modules, module).write(out);
+
+        assertThat(reason, written, is(true));
+        assertThat(reason, out.toString("UTF-8"),
+            is(writeDocument(createBuilder(modules, module))));
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013-2025 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.de.smartics.maven.plugin.jboss.modules.xml;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.junit.Test;
+
+import de.smartics.maven.plugin.jboss.modules.xml.ModuleXmlBuilder;
+import de.smartics.maven.plugin.jboss.modules.xml.XmlFragmentTemplates;
+
+/**
+ * Tests {@link XmlFragmentTemplates}.
+ */
+public class XmlFragmentTemplatesTest
+{
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final String FRAGMENT =
+      "<exports xmlns=\"urn:other\"><include path=\"META-INF\"/></exports>";
+
+  // --- members --------------------------------------------------------------
+
+  private final XmlFragmentTemplates uut = new XmlFragmentTemplates();
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  // --- helper ---------------------------------------------------------------
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void adjustsNamespaceOfAllElements()
+  {
+    final Element element =
+        uut.adopt(FRAGMENT, ModuleXmlBuilder.MODULE_NS_1_1);
+
+    assertThat(element.getNamespace(), is(ModuleXmlBuilder.MODULE_NS_1_1));
+    assertThat(element.getChild("include", ModuleXmlBuilder.MODULE_NS_1_1)
+        .getAttributeValue("path"), is("META-INF"));
+    assertThat(element.getParent(), is(nullValue()));
+  }
+
+  @Test
+  public void returnsIndependentCopies()
+  {
+    final Element first = uut.adopt(FRAGMENT, ModuleXmlBuilder.MODULE_NS_1_1);
+    first.removeContent();
+    final Element second =
+        uut.adopt(FRAGMENT, ModuleXmlBuilder.MODULE_NS_1_1);
+
+    assertThat(second, is(not(sameInstance(first))));
+    assertThat(second.getChildren().size(), is(1));
+  }
+
+  @Test
+  public void cachesTemplatesPerNamespace()
+  {
+    final Namespace namespace = Namespace.getNamespace("urn:jboss:module:1.5");
+    uut.adopt(FRAGMENT, ModuleXmlBuilder.MODULE_NS_1_1);
+
+    assertThat(uut.adopt(FRAGMENT, namespace).getNamespace(), is(namespace));
+  }
+}